@@ -0,0 +1,90 @@
+package com.artspace.post;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the latency added by compressing pages of {@link Post}, as serialized by the query
+ * resources, with each {@link ContentEncoding} and compression level. The bytes sent on the wire,
+ * compressed and uncompressed, are printed once per trial, so they can be weighed against the
+ * added latency.
+ * <p>
+ * Messages are built from random words, since repeating the same message would compress far
+ * better than real posts do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompressionBenchmark {
+
+  private static final String[] WORDS = ("lorem ipsum dolor sit amet consectetur adipiscing "
+      + "elit sed do eiusmod tempor incididunt ut labore et dolore magna aliqua painting sketch "
+      + "gallery canvas color light shadow portrait landscape").split(" ");
+
+  @Param({"10", "100"})
+  int pageSize;
+
+  @Param({"GZIP", "DEFLATE"})
+  ContentEncoding encoding;
+
+  @Param({"1", "6"})
+  int level;
+
+  byte[] page;
+
+  @Setup
+  public void setup() throws JsonProcessingException {
+    final var objectIdModule = new SimpleModule()
+        .addSerializer(ObjectId.class, ToStringSerializer.instance);
+    final var objectMapper = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .registerModule(objectIdModule);
+
+    final var random = new Random(42);
+    final List<Post> posts = IntStream.range(0, pageSize)
+        .mapToObj(index -> {
+          final var post = PostMapperBenchmark.samplePost();
+          post.setMessage(messageOf(random));
+          return post;
+        })
+        .collect(Collectors.toList());
+    page = objectMapper.writeValueAsBytes(posts);
+
+    System.out.printf("%n%s level %s, page of %s posts: %s bytes, %s bytes on the wire%n",
+        encoding, level, pageSize, page.length, encoding.compress(page, level).length);
+  }
+
+  @Benchmark
+  public byte[] compress() {
+    return encoding.compress(page, level);
+  }
+
+  private static String messageOf(final Random random) {
+    return IntStream.range(0, 8 + random.nextInt(24))
+        .mapToObj(index -> WORDS[random.nextInt(WORDS.length)])
+        .collect(Collectors.joining(" "));
+  }
+}
@@ -0,0 +1,55 @@
+package com.artspace.post;
+
+import com.artspace.post.outgoing.PostDTO;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import org.bson.types.ObjectId;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the mapping of a {@link Post} into the {@link PostDTO} shipped to external services
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PostMapperBenchmark {
+
+  PostMapper postMapper;
+
+  Post post;
+
+  @Setup
+  public void setup() {
+    postMapper = Mappers.getMapper(PostMapper.class);
+    post = samplePost();
+  }
+
+  @Benchmark
+  public PostDTO toDTO() {
+    return postMapper.toDTO(post);
+  }
+
+  static Post samplePost() {
+    final var post = new Post();
+    post.setId(new ObjectId());
+    post.setAuthor("john.doe");
+    post.setMessage("Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod");
+    post.setCreationTime(Instant.now());
+    post.setEnabled(true);
+    post.setAuthorActive(true);
+    return post;
+  }
+}
@@ -0,0 +1,109 @@
+package com.artspace.post;
+
+import com.artspace.post.outgoing.PostDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import javax.json.bind.Jsonb;
+import javax.json.bind.JsonbBuilder;
+import javax.json.bind.JsonbConfig;
+import javax.json.bind.adapter.JsonbAdapter;
+import org.bson.types.ObjectId;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the JSON serialization of pages of {@link Post}, as returned by the REST resources,
+ * and of a single {@link PostDTO}, as shipped to the message broker, with both Jackson and JSON-B.
+ * <p>
+ * Object ids are serialized as their hexadecimal representation, as done by the application.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+  @Param({"10", "100"})
+  int pageSize;
+
+  ObjectMapper objectMapper;
+
+  Jsonb jsonb;
+
+  List<Post> posts;
+
+  PostDTO postDto;
+
+  @Setup
+  public void setup() {
+    final var objectIdModule = new SimpleModule()
+        .addSerializer(ObjectId.class, ToStringSerializer.instance);
+    objectMapper = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .registerModule(objectIdModule);
+    jsonb = JsonbBuilder.create(new JsonbConfig().withAdapters(new ObjectIdAdapter()));
+
+    posts = IntStream.range(0, pageSize)
+        .mapToObj(index -> PostMapperBenchmark.samplePost())
+        .collect(Collectors.toList());
+    postDto = Mappers.getMapper(PostMapper.class).toDTO(posts.get(0));
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    jsonb.close();
+  }
+
+  @Benchmark
+  public byte[] jacksonPosts() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(posts);
+  }
+
+  @Benchmark
+  public byte[] jacksonPostDTO() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(postDto);
+  }
+
+  @Benchmark
+  public String jsonbPosts() {
+    return jsonb.toJson(posts);
+  }
+
+  @Benchmark
+  public String jsonbPostDTO() {
+    return jsonb.toJson(postDto);
+  }
+
+  public static class ObjectIdAdapter implements JsonbAdapter<ObjectId, String> {
+
+    @Override
+    public String adaptToJson(final ObjectId id) {
+      return id.toHexString();
+    }
+
+    @Override
+    public ObjectId adaptFromJson(final String id) {
+      return new ObjectId(id);
+    }
+  }
+}
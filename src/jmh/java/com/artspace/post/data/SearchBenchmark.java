@@ -0,0 +1,78 @@
+package com.artspace.post.data;
+
+import com.artspace.post.Post;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the construction of a {@link PaginatedSearch}, including the parsing of its post
+ * status, and the filter and sort documents built by the {@link AuthorLookupQuery}, without
+ * reaching the repository
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchBenchmark {
+
+  PaginatedSearch authorSearch;
+
+  PaginatedSearch resumedAuthorSearch;
+
+  @Setup
+  public void setup() {
+    authorSearch = newSearch();
+    resumedAuthorSearch = newSearch().after(sampleCursor());
+  }
+
+  @Benchmark
+  public PaginatedSearch buildSearch() {
+    return newSearch();
+  }
+
+  @Benchmark
+  public void authorLookupPipeline(final Blackhole blackhole) {
+    blackhole.consume(AuthorLookupQuery.filterOf(authorSearch));
+    blackhole.consume(AuthorLookupQuery.sortOf(authorSearch));
+  }
+
+  @Benchmark
+  public Document resumedAuthorLookupFilter() {
+    return AuthorLookupQuery.filterOf(resumedAuthorSearch);
+  }
+
+  private static String sampleCursor() {
+    final var post = new Post();
+    post.setId(new ObjectId());
+    post.setCreationTime(Instant.now());
+    return PageCursor.of(post).map(PageCursor::encode).orElseThrow();
+  }
+
+  private static PaginatedSearch newSearch() {
+    return new PaginatedSearch(search -> Uni.createFrom().item(List.of()),
+        search -> Multi.createFrom().empty())
+        .pageSize(20)
+        .atPage(2)
+        .sortedBy("creationTime")
+        .byAuthor("john.doe")
+        .byPostStatus("enabled");
+  }
+}
@@ -0,0 +1,50 @@
+package com.artspace.post.incoming;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the deserialization of the identity events consumed from the message broker
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AppUserDeserializerBenchmark {
+
+  private static final String TOPIC = "identity.cdc.appusers.0";
+
+  AppUserDeserializer deserializer;
+
+  byte[] payload;
+
+  @Setup
+  public void setup() {
+    deserializer = new AppUserDeserializer();
+    payload = ("{\"username\":\"john.doe\",\"firstName\":\"John\",\"lasName\":\"Doe\","
+        + "\"active\":true}").getBytes(StandardCharsets.UTF_8);
+  }
+
+  @TearDown
+  public void tearDown() {
+    deserializer.close();
+  }
+
+  @Benchmark
+  public Object deserialize() {
+    return deserializer.deserialize(TOPIC, payload);
+  }
+}
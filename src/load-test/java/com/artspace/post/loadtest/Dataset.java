@@ -0,0 +1,104 @@
+package com.artspace.post.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.javafaker.Faker;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Authors and posts a load test runs against. Authors and post messages are generated by Faker,
+ * from a fixed seed, so runs with the same settings request the same data.
+ * <p>
+ * Requests are built by a single dispatcher thread, so generation isn't synchronized. Post ids, on
+ * the other hand, are added by whichever thread completes a save.
+ */
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+final class Dataset {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private final Faker faker;
+
+  private final Random random;
+
+  @Getter
+  private final List<String> authors;
+
+  private final List<String> postIds = Collections.synchronizedList(new ArrayList<>());
+
+  @Getter
+  private final int pageSize;
+
+  private final int idsPerQuery;
+
+  static Dataset generate(final LoadTestConfig config) {
+    final var random = new Random(config.getSeed());
+    final var faker = new Faker(Locale.ENGLISH, random);
+
+    final Set<String> authors = new LinkedHashSet<>();
+    while (authors.size() < config.getAuthors()) {
+      authors.add(faker.name().username().toLowerCase(Locale.ENGLISH));
+    }
+
+    return new Dataset(faker, random, List.copyOf(authors), config.getPageSize(),
+        config.getIdsPerQuery());
+  }
+
+  String randomAuthor() {
+    return authors.get(random.nextInt(authors.size()));
+  }
+
+  String randomPostId() {
+    return postIds.get(random.nextInt(postIds.size()));
+  }
+
+  List<String> randomPostIds() {
+    return IntStream.range(0, idsPerQuery)
+        .mapToObj(i -> randomPostId())
+        .collect(Collectors.toList());
+  }
+
+  int randomPageIndex() {
+    return random.nextInt(Math.max(1, postIds.size() / pageSize));
+  }
+
+  Map<String, String> newPost() {
+    return Map.of("author", randomAuthor(), "message", faker.lorem().sentence(12));
+  }
+
+  String newPostJson() {
+    return toJson(newPost());
+  }
+
+  List<Map<String, String>> newPosts(final int count) {
+    return IntStream.range(0, count).mapToObj(i -> newPost()).collect(Collectors.toList());
+  }
+
+  void addPostId(final String id) {
+    postIds.add(id);
+  }
+
+  int postCount() {
+    return postIds.size();
+  }
+
+  static String toJson(final Object value) {
+    try {
+      return MAPPER.writeValueAsString(value);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Unable to serialize " + value, e);
+    }
+  }
+}
@@ -0,0 +1,120 @@
+package com.artspace.post.loadtest;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+
+/**
+ * Seeds the service with the {@link Dataset} before a load test starts.
+ * <p>
+ * Authors are only registered by identity events, so they are published to the AppUsers topic,
+ * just like the identity service would. Posts are then saved through the batch endpoint. Posts
+ * rejected because their author wasn't consumed yet are retried, until the seed timeout expires.
+ */
+@RequiredArgsConstructor
+final class DatasetSeeder {
+
+  private static final int BATCH_SIZE = 500;
+
+  private static final String CORRELATION_HEADER = "X-Request-ID";
+
+  private static final long RETRY_INTERVAL_MILLIS = 1000L;
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private final LoadTestConfig config;
+
+  private final HttpClient client;
+
+  void seed(final Dataset dataset) throws IOException, InterruptedException {
+    publishAuthors(dataset);
+    seedPosts(dataset);
+  }
+
+  private void publishAuthors(final Dataset dataset) {
+    final var properties = new Properties();
+    properties.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, config.getKafkaBootstrapServers());
+    properties.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
+    properties.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
+
+    try (var producer = new KafkaProducer<String, String>(properties)) {
+      dataset.getAuthors().forEach(username -> {
+        final var appUser = Map.of("username", username, "firstName", username, "active", true);
+        final var record = new ProducerRecord<>(config.getKafkaTopic(), username,
+            Dataset.toJson(appUser));
+        record.headers().add("correlationId",
+            UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8));
+        producer.send(record);
+      });
+      producer.flush();
+    }
+    System.out.printf("Published %d authors to %s%n", dataset.getAuthors().size(),
+        config.getKafkaTopic());
+  }
+
+  private void seedPosts(final Dataset dataset) throws IOException, InterruptedException {
+    final var deadline = Instant.now().plus(config.getSeedTimeout());
+    var remaining = config.getPosts();
+    while (remaining > 0) {
+      final var batch = dataset.newPosts(Math.min(BATCH_SIZE, remaining));
+      final var created = saveBatch(batch, dataset);
+      remaining -= created;
+
+      if (created < batch.size()) {
+        if (Instant.now().isAfter(deadline)) {
+          throw new IllegalStateException("Posts were still being rejected after "
+              + config.getSeedTimeout() + ". Are the authors being consumed by the service?");
+        }
+        Thread.sleep(RETRY_INTERVAL_MILLIS);
+      }
+    }
+    System.out.printf("Seeded %d posts%n", dataset.postCount());
+  }
+
+  private int saveBatch(final List<Map<String, String>> batch, final Dataset dataset)
+      throws IOException, InterruptedException {
+    final var request = HttpRequest.newBuilder(config.getTarget().resolve("/api/posts/batch"))
+        .header("Content-Type", "application/json")
+        .header(CORRELATION_HEADER, UUID.randomUUID().toString())
+        .POST(BodyPublishers.ofString(Dataset.toJson(batch)))
+        .build();
+
+    final var response = client.send(request, BodyHandlers.ofString());
+    if (response.statusCode() != 200) {
+      throw new IllegalStateException(
+          "Batch save failed with status " + response.statusCode() + ": " + response.body());
+    }
+
+    final List<Map<String, Object>> results = MAPPER.readValue(response.body(),
+        new TypeReference<List<Map<String, Object>>>() {
+        });
+    final List<String> createdIds = new ArrayList<>();
+    results.stream()
+        .filter(result -> "CREATED".equals(result.get("status")))
+        .map(result -> String.valueOf(result.get("id")))
+        .forEach(createdIds::add);
+    createdIds.forEach(dataset::addPostId);
+    return createdIds.size();
+  }
+
+  static URI apiOf(final URI target) {
+    return target.resolve("/api/");
+  }
+}
@@ -0,0 +1,103 @@
+package com.artspace.post.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Records the latency and outcome of every request, per {@link Operation}. Latencies are recorded
+ * in microseconds, up to one minute, with three significant digits.
+ * <p>
+ * Latencies are measured from the moment a request was scheduled to start, not from the moment it
+ * was actually sent, so requests delayed by a saturated service, or by the concurrency limit, are
+ * not left out of the report.
+ */
+final class LatencyReport {
+
+  private static final long HIGHEST_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+  private static final double MICROS_PER_MILLI = 1000.0;
+
+  private final Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+
+  private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+
+  LatencyReport() {
+    for (Operation operation : Operation.values()) {
+      recorders.put(operation, new Recorder(HIGHEST_LATENCY_MICROS, 3));
+      errors.put(operation, new LongAdder());
+    }
+  }
+
+  void record(final Operation operation, final long scheduledAtNanos, final boolean isSuccess) {
+    final var latency = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduledAtNanos);
+    recorders.get(operation).recordValue(Math.min(latency, HIGHEST_LATENCY_MICROS));
+    if (!isSuccess) {
+      errors.get(operation).increment();
+    }
+  }
+
+  /**
+   * Discard everything recorded so far, such as requests issued while warming up
+   */
+  void reset() {
+    recorders.values().forEach(Recorder::reset);
+    errors.values().forEach(LongAdder::reset);
+  }
+
+  /**
+   * Print a summary of each requested operation, and write its full percentile distribution to
+   * the report directory, as {@code <operation>.hgrm} files
+   *
+   * @param elapsed time the measurement took
+   * @param out     where to print the summary
+   * @param dir     where to write the distributions
+   */
+  void print(final Duration elapsed, final PrintStream out, final Path dir) throws IOException {
+    Files.createDirectories(dir);
+    final var seconds = elapsed.toMillis() / 1000.0;
+    final var total = new Histogram(HIGHEST_LATENCY_MICROS, 3);
+    var totalErrors = 0L;
+
+    out.printf("%-8s %10s %8s %10s %9s %9s %9s %9s %9s%n", "op", "count", "errors", "req/s",
+        "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+    for (Operation operation : Operation.values()) {
+      final var histogram = recorders.get(operation).getIntervalHistogram();
+      final var operationErrors = errors.get(operation).sum();
+      if (histogram.getTotalCount() == 0) {
+        continue;
+      }
+
+      total.add(histogram);
+      totalErrors += operationErrors;
+      printLine(out, operation.getKey(), histogram, operationErrors, seconds);
+
+      try (var file = new PrintStream(dir.resolve(operation.getKey() + ".hgrm").toFile())) {
+        histogram.outputPercentileDistribution(file, MICROS_PER_MILLI);
+      }
+    }
+    printLine(out, "total", total, totalErrors, seconds);
+  }
+
+  private static void printLine(final PrintStream out, final String name,
+      final Histogram histogram, final long errors, final double seconds) {
+    out.printf("%-8s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+        name,
+        histogram.getTotalCount(),
+        errors,
+        histogram.getTotalCount() / seconds,
+        histogram.getValueAtPercentile(50) / MICROS_PER_MILLI,
+        histogram.getValueAtPercentile(90) / MICROS_PER_MILLI,
+        histogram.getValueAtPercentile(99) / MICROS_PER_MILLI,
+        histogram.getValueAtPercentile(99.9) / MICROS_PER_MILLI,
+        histogram.getMaxValue() / MICROS_PER_MILLI);
+  }
+}
@@ -0,0 +1,138 @@
+package com.artspace.post.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load generator for the posts API. Requests are started at a fixed rate, picked at
+ * random from a weighted mix of operations, whether or not previous requests have completed, which
+ * is how independent clients behave. A closed-loop generator would instead slow down along with
+ * the service, hiding the latency it is meant to measure.
+ * <p>
+ * A run seeds the service with a generated dataset, warms it up, and then measures it for the
+ * configured duration, printing throughput and latency percentiles of each operation. See {@link
+ * LoadTestConfig} for the available settings.
+ */
+public final class LoadTest {
+
+  private final LoadTestConfig config;
+
+  private final HttpClient client;
+
+  private final Dataset dataset;
+
+  private final URI api;
+
+  private final Operation[] operations;
+
+  private final int[] cumulativeWeights;
+
+  private final Random random;
+
+  private final Semaphore slots;
+
+  private final LatencyReport report = new LatencyReport();
+
+  LoadTest(final LoadTestConfig config, final HttpClient client, final Dataset dataset) {
+    if (config.getRate() <= 0 || config.getConcurrency() <= 0) {
+      throw new IllegalArgumentException("Rate and concurrency must be greater than zero");
+    }
+
+    this.config = config;
+    this.client = client;
+    this.dataset = dataset;
+    this.api = DatasetSeeder.apiOf(config.getTarget());
+    this.random = new Random(config.getSeed());
+    this.slots = new Semaphore(config.getConcurrency());
+
+    final var mix = config.getMix();
+    this.operations = mix.keySet().toArray(new Operation[0]);
+    this.cumulativeWeights = new int[operations.length];
+    var total = 0;
+    for (int i = 0; i < operations.length; i++) {
+      total += Math.max(0, mix.get(operations[i]));
+      cumulativeWeights[i] = total;
+    }
+  }
+
+  public static void main(final String[] args) throws Exception {
+    final var config = LoadTestConfig.fromSystemProperties();
+    System.out.println("Running load test with " + config);
+
+    final var client = HttpClient.newBuilder()
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+    final var dataset = Dataset.generate(config);
+    new DatasetSeeder(config, client).seed(dataset);
+
+    final var loadTest = new LoadTest(config, client, dataset);
+    System.out.printf("Warming up for %s%n", config.getWarmup());
+    loadTest.run(config.getWarmup());
+    loadTest.report.reset();
+
+    System.out.printf("Measuring %d req/s for %s%n", config.getRate(), config.getDuration());
+    final var startedAt = System.nanoTime();
+    loadTest.run(config.getDuration());
+    final var elapsed = Duration.ofNanos(System.nanoTime() - startedAt);
+
+    loadTest.report.print(elapsed, System.out, config.getReportDir());
+    System.out.printf("Percentile distributions written to %s%n", config.getReportDir());
+  }
+
+  /**
+   * Issue requests at the configured rate for given duration, and wait for all of them to
+   * complete
+   */
+  void run(final Duration duration) throws InterruptedException {
+    final var interval = TimeUnit.SECONDS.toNanos(1) / config.getRate();
+    final var end = System.nanoTime() + duration.toNanos();
+
+    var next = System.nanoTime();
+    while (next < end) {
+      for (var now = System.nanoTime(); now < next; now = System.nanoTime()) {
+        LockSupport.parkNanos(next - now);
+      }
+
+      final var scheduledAt = next;
+      next += interval;
+
+      final var operation = nextOperation();
+      final var request = operation.request(api, dataset);
+      slots.acquire();
+      client.sendAsync(request, BodyHandlers.discarding())
+          .whenComplete((response, error) -> {
+            slots.release();
+            report.record(operation, scheduledAt, error == null && isSuccess(response));
+            if (error == null && operation == Operation.SAVE_POST) {
+              response.headers().firstValue("Location")
+                  .map(location -> location.substring(location.lastIndexOf('/') + 1))
+                  .ifPresent(dataset::addPostId);
+            }
+          });
+    }
+
+    slots.acquire(config.getConcurrency());
+    slots.release(config.getConcurrency());
+  }
+
+  private Operation nextOperation() {
+    final var value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+    for (int i = 0; i < cumulativeWeights.length; i++) {
+      if (value < cumulativeWeights[i]) {
+        return operations[i];
+      }
+    }
+    throw new IllegalStateException("Request mix is empty");
+  }
+
+  private static boolean isSuccess(final HttpResponse<?> response) {
+    return response.statusCode() >= 200 && response.statusCode() < 300;
+  }
+}
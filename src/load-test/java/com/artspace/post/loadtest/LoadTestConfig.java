@@ -0,0 +1,110 @@
+package com.artspace.post.loadtest;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Settings of a load test run, read from system properties under the prefix {@code loadtest.*}.
+ * Every setting has a default, suitable to a service running locally in dev mode.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+final class LoadTestConfig {
+
+  private static final String PREFIX = "loadtest.";
+
+  private final URI target;
+
+  /**
+   * Requests started per second, regardless of how long previous requests take to complete
+   */
+  private final int rate;
+
+  /**
+   * Max number of requests in flight. Requests over this limit wait for a free slot, and the wait
+   * is accounted in their latency.
+   */
+  private final int concurrency;
+
+  private final Duration warmup;
+
+  private final Duration duration;
+
+  private final Map<Operation, Integer> mix;
+
+  private final int authors;
+
+  private final int posts;
+
+  private final int pageSize;
+
+  private final int idsPerQuery;
+
+  private final long seed;
+
+  private final String kafkaBootstrapServers;
+
+  private final String kafkaTopic;
+
+  private final Duration seedTimeout;
+
+  private final Path reportDir;
+
+  static LoadTestConfig fromSystemProperties() {
+    return new LoadTestConfig(
+        URI.create(property("target", "http://localhost:8093")),
+        Integer.parseInt(property("rate", "200")),
+        Integer.parseInt(property("concurrency", "64")),
+        Duration.parse(property("warmup", "PT10S")),
+        Duration.parse(property("duration", "PT60S")),
+        parseMix(property("mix", "get:50,author:20,status:10,ids:10,save:10")),
+        Integer.parseInt(property("authors", "100")),
+        Integer.parseInt(property("posts", "5000")),
+        Integer.parseInt(property("page-size", "10")),
+        Integer.parseInt(property("ids-per-query", "10")),
+        Long.parseLong(property("seed", "42")),
+        property("kafka.bootstrap-servers", "localhost:9092"),
+        property("kafka.topic", "identity.cdc.appusers.0"),
+        Duration.parse(property("seed-timeout", "PT60S")),
+        Path.of(property("report-dir", "target/load-test")));
+  }
+
+  /**
+   * Parse a request mix, made of comma separated {@code operation:weight} pairs, such as {@code
+   * get:80,save:20}. Operations left out of the mix are never requested.
+   *
+   * @throws IllegalArgumentException if the mix is malformed, or has no positive weight
+   */
+  static Map<Operation, Integer> parseMix(final String value) {
+    final Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+    Arrays.stream(value.split(","))
+        .map(String::trim)
+        .filter(pair -> !pair.isEmpty())
+        .forEach(pair -> {
+          final var parts = pair.split(":");
+          if (parts.length != 2) {
+            throw new IllegalArgumentException("Malformed request mix entry: " + pair);
+          }
+          mix.put(Operation.parse(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+        });
+
+    if (mix.values().stream().noneMatch(weight -> weight > 0)) {
+      throw new IllegalArgumentException("Request mix must have at least one positive weight");
+    }
+    return Collections.unmodifiableMap(mix);
+  }
+
+  private static String property(final String name, final String defaultValue) {
+    return System.getProperty(PREFIX + name, defaultValue);
+  }
+}
@@ -0,0 +1,90 @@
+package com.artspace.post.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.UUID;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Requests a load test can issue against the posts API. Each operation builds its requests from
+ * the seeded {@link Dataset}.
+ */
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+enum Operation {
+  SAVE_POST("save") {
+    @Override
+    HttpRequest.Builder requestOf(final URI api, final Dataset dataset) {
+      return HttpRequest.newBuilder(api)
+          .header("Content-Type", "application/json")
+          .POST(BodyPublishers.ofString(dataset.newPostJson()));
+    }
+  },
+  GET_POST("get") {
+    @Override
+    HttpRequest.Builder requestOf(final URI api, final Dataset dataset) {
+      return HttpRequest.newBuilder(api.resolve("posts/" + dataset.randomPostId())).GET();
+    }
+  },
+  AUTHOR_QUERY("author") {
+    @Override
+    HttpRequest.Builder requestOf(final URI api, final Dataset dataset) {
+      final var query = "?author=" + dataset.randomAuthor() + "&size=" + dataset.getPageSize();
+      return HttpRequest.newBuilder(api.resolve("posts" + query)).GET();
+    }
+  },
+  STATUS_QUERY("status") {
+    @Override
+    HttpRequest.Builder requestOf(final URI api, final Dataset dataset) {
+      final var query = "?status=enabled&index=" + dataset.randomPageIndex()
+          + "&size=" + dataset.getPageSize();
+      return HttpRequest.newBuilder(api.resolve("posts" + query)).GET();
+    }
+  },
+  IDS_QUERY("ids") {
+    @Override
+    HttpRequest.Builder requestOf(final URI api, final Dataset dataset) {
+      final var query = "?ids=" + String.join(",", dataset.randomPostIds());
+      return HttpRequest.newBuilder(api.resolve("posts" + query)).GET();
+    }
+  };
+
+  private static final String CORRELATION_HEADER = "X-Request-ID";
+
+  private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+  @Getter
+  private final String key;
+
+  /**
+   * Build the next request of this operation
+   *
+   * @param api     base URI of the API, ending with a slash
+   * @param dataset seeded data to pick identifiers from
+   * @return a request, with a fresh correlation id and a timeout
+   */
+  HttpRequest request(final URI api, final Dataset dataset) {
+    return requestOf(api, dataset)
+        .header(CORRELATION_HEADER, UUID.randomUUID().toString())
+        .timeout(TIMEOUT)
+        .build();
+  }
+
+  abstract HttpRequest.Builder requestOf(final URI api, final Dataset dataset);
+
+  /**
+   * Parse an operation by its key, such as {@code get} or {@code save}
+   *
+   * @throws IllegalArgumentException if no operation has given key
+   */
+  static Operation parse(final String key) {
+    return Arrays.stream(values())
+        .filter(operation -> operation.key.equalsIgnoreCase(key))
+        .findFirst()
+        .orElseThrow(() -> new IllegalArgumentException("Unknown operation: " + key));
+  }
+}
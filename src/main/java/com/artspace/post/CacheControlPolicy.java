@@ -0,0 +1,46 @@
+package com.artspace.post;
+
+import java.util.Optional;
+import javax.enterprise.context.ApplicationScoped;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response.ResponseBuilder;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * {@code Cache-Control} directives sent along with post reads, configured per endpoint. Endpoints
+ * without configured directives won't send the header.
+ * <p>
+ * Configurations for this policy are under the prefix {@code post.http.cache-control.*}, and take
+ * the header value as is, such as {@code private, max-age=5} or {@code no-cache}.
+ */
+@ApplicationScoped
+class CacheControlPolicy {
+
+  @ConfigProperty(name = "post.http.cache-control.get-by-id")
+  Optional<String> postById;
+
+  @ConfigProperty(name = "post.http.cache-control.query")
+  Optional<String> query;
+
+  /**
+   * Apply the directives of the endpoint that retrieves a post by its id
+   *
+   * @param response response being built
+   * @return given response builder
+   */
+  ResponseBuilder forPostById(final ResponseBuilder response) {
+    postById.ifPresent(value -> response.header(HttpHeaders.CACHE_CONTROL, value));
+    return response;
+  }
+
+  /**
+   * Apply the directives of the endpoint that queries posts
+   *
+   * @param response response being built
+   * @return given response builder
+   */
+  ResponseBuilder forQuery(final ResponseBuilder response) {
+    query.ifPresent(value -> response.header(HttpHeaders.CACHE_CONTROL, value));
+    return response;
+  }
+}
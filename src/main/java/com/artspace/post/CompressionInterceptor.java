@@ -0,0 +1,156 @@
+package com.artspace.post;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Compresses the responses of {@link Compressed} resource methods with the coding negotiated
+ * through the {@code Accept-Encoding} request header. Bodies smaller than a configurable threshold
+ * are sent uncompressed, since compressing them costs more than the bytes it saves.
+ * <p>
+ * The whole body is buffered before deciding whether it is compressed, which is fine for the
+ * bounded pages served by the query resources, but must not be used on streamed responses.
+ * <p>
+ * Strong entity tags of compressed responses are suffixed by their coding, as described by {@link
+ * EntityTags#encoded(EntityTag, ContentEncoding)}, so a compressed body never shares its tag with
+ * the uncompressed one.
+ * <p>
+ * The following metrics are exported:
+ * <ul>
+ *   <li>{@code post_response_compression_ratio}: uncompressed size over compressed size of each
+ *   compressed body, tagged by its coding</li>
+ *   <li>{@code post_response_compression_cpu}: CPU time spent compressing each body, tagged by its
+ *   coding</li>
+ *   <li>{@code post_response_compression_skipped}: bodies sent uncompressed, tagged by the reason,
+ *   {@code not_accepted} or {@code below_threshold}</li>
+ * </ul>
+ * <p>
+ * Configurations for this interceptor are under the prefix {@code post.http.compression.*}.
+ */
+@Provider
+@Compressed
+public class CompressionInterceptor implements WriterInterceptor {
+
+  private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+  @ConfigProperty(name = "post.http.compression.enabled", defaultValue = "true")
+  boolean isEnabled;
+
+  @ConfigProperty(name = "post.http.compression.min-size", defaultValue = "1024")
+  int minimumSize;
+
+  @ConfigProperty(name = "post.http.compression.level", defaultValue = "6")
+  int level;
+
+  @Inject
+  MeterRegistry registry;
+
+  @Context
+  HttpHeaders requestHeaders;
+
+  final Map<ContentEncoding, DistributionSummary> ratios = new EnumMap<>(ContentEncoding.class);
+
+  final Map<ContentEncoding, Timer> cpuTimes = new EnumMap<>(ContentEncoding.class);
+
+  Counter notAccepted;
+
+  Counter belowThreshold;
+
+  @PostConstruct
+  void init() {
+    for (var encoding : ContentEncoding.values()) {
+      ratios.put(encoding, DistributionSummary.builder("post_response_compression_ratio")
+          .description("Uncompressed over compressed size of compressed responses")
+          .tag("encoding", encoding.token())
+          .register(registry));
+      cpuTimes.put(encoding, Timer.builder("post_response_compression_cpu")
+          .description("CPU time spent compressing responses")
+          .tag("encoding", encoding.token())
+          .register(registry));
+    }
+    this.notAccepted = Counter.builder("post_response_compression_skipped")
+        .description("Responses sent uncompressed")
+        .tag("reason", "not_accepted")
+        .register(registry);
+    this.belowThreshold = Counter.builder("post_response_compression_skipped")
+        .description("Responses sent uncompressed")
+        .tag("reason", "below_threshold")
+        .register(registry);
+  }
+
+  @Override
+  public void aroundWriteTo(final WriterInterceptorContext context) throws IOException {
+    if (!isEnabled || context.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)) {
+      context.proceed();
+      return;
+    }
+
+    context.getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    final var encoding =
+        ContentEncoding.negotiate(requestHeaders.getHeaderString(HttpHeaders.ACCEPT_ENCODING));
+    if (encoding.isEmpty()) {
+      notAccepted.increment();
+      context.proceed();
+      return;
+    }
+
+    final var output = context.getOutputStream();
+    final var buffer = new ByteArrayOutputStream();
+    context.setOutputStream(buffer);
+    context.proceed();
+    context.setOutputStream(output);
+
+    final var body = buffer.toByteArray();
+    if (body.length < minimumSize) {
+      belowThreshold.increment();
+      output.write(body);
+      return;
+    }
+
+    final var startedAt = cpuTime();
+    final var compressed = encoding.get().compress(body, level);
+    cpuTimes.get(encoding.get()).record(cpuTime() - startedAt, TimeUnit.NANOSECONDS);
+    ratios.get(encoding.get()).record((double) body.length / compressed.length);
+
+    context.getHeaders().putSingle(HttpHeaders.CONTENT_ENCODING, encoding.get().token());
+    context.getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+    encodeEntityTag(context, encoding.get());
+    output.write(compressed);
+  }
+
+  private static void encodeEntityTag(final WriterInterceptorContext context,
+      final ContentEncoding encoding) {
+    final var tag = context.getHeaders().getFirst(HttpHeaders.ETAG);
+    if (tag == null) {
+      return;
+    }
+
+    final var entityTag =
+        tag instanceof EntityTag ? (EntityTag) tag : EntityTag.valueOf(tag.toString());
+    context.getHeaders().putSingle(HttpHeaders.ETAG, EntityTags.encoded(entityTag, encoding));
+  }
+
+  private static long cpuTime() {
+    return THREADS.isCurrentThreadCpuTimeSupported()
+        ? THREADS.getCurrentThreadCpuTime()
+        : System.nanoTime();
+  }
+}
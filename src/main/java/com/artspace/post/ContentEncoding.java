@@ -0,0 +1,127 @@
+package com.artspace.post;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Content codings that responses can be compressed with, negotiated through the
+ * {@code Accept-Encoding} request header. Codings are declared in order of preference, which
+ * breaks ties between codings equally weighted by the client.
+ */
+enum ContentEncoding {
+
+  GZIP("gzip") {
+    @Override
+    OutputStream wrap(final OutputStream output, final int level) throws IOException {
+      return new GZIPOutputStream(output) {
+        {
+          def.setLevel(level);
+        }
+      };
+    }
+  },
+
+  DEFLATE("deflate") {
+    @Override
+    OutputStream wrap(final OutputStream output, final int level) throws IOException {
+      return new DeflaterOutputStream(output, new Deflater(level));
+    }
+  };
+
+  private static final String ANY = "*";
+
+  private static final String QUALITY_PARAM = "q=";
+
+  private final String token;
+
+  ContentEncoding(final String token) {
+    this.token = token;
+  }
+
+  /**
+   * Token identifying this coding in the {@code Content-Encoding} header
+   */
+  String token() {
+    return token;
+  }
+
+  abstract OutputStream wrap(OutputStream output, int level) throws IOException;
+
+  /**
+   * Compress a body with this coding
+   *
+   * @param body  uncompressed body
+   * @param level deflate compression level, from 0 to 9, or -1 for the default level
+   * @return the compressed body
+   */
+  byte[] compress(final byte[] body, final int level) {
+    final var compressed = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+    try (var output = wrap(compressed, level)) {
+      output.write(body);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unable to compress a body with " + token, e);
+    }
+    return compressed.toByteArray();
+  }
+
+  /**
+   * Choose the preferred coding accepted by an {@code Accept-Encoding} header. Codings are weighted
+   * by their quality value, and the {@code *} wildcard weights every coding not listed explicitly.
+   * Codings with a quality value of zero are never chosen.
+   *
+   * @param acceptEncoding value of the {@code Accept-Encoding} header
+   * @return the preferred coding, or {@code Optional.empty()} if the body must not be compressed
+   */
+  static Optional<ContentEncoding> negotiate(final String acceptEncoding) {
+    if (acceptEncoding == null || acceptEncoding.isBlank()) {
+      return Optional.empty();
+    }
+
+    final Map<String, Double> qualities = new HashMap<>();
+    for (var coding : acceptEncoding.split(",")) {
+      final var parts = coding.split(";");
+      final var name = parts[0].trim().toLowerCase(Locale.ROOT);
+      if (!name.isEmpty()) {
+        qualities.put(name, qualityOf(parts));
+      }
+    }
+
+    final var wildcard = qualities.getOrDefault(ANY, 0.0);
+    ContentEncoding preferred = null;
+    var preferredQuality = 0.0;
+    for (var encoding : values()) {
+      final var quality = qualities.getOrDefault(encoding.token, wildcard);
+      if (quality > preferredQuality) {
+        preferred = encoding;
+        preferredQuality = quality;
+      }
+    }
+
+    return Optional.ofNullable(preferred);
+  }
+
+  private static double qualityOf(final String[] parts) {
+    return Arrays.stream(parts, 1, parts.length)
+        .map(String::trim)
+        .filter(param -> param.startsWith(QUALITY_PARAM))
+        .findFirst()
+        .map(param -> {
+          try {
+            return Double.parseDouble(param.substring(QUALITY_PARAM.length()));
+          } catch (NumberFormatException e) {
+            return 0.0;
+          }
+        })
+        .orElse(1.0);
+  }
+}
@@ -0,0 +1,222 @@
+package com.artspace.post;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import javax.ws.rs.core.EntityTag;
+
+/**
+ * Helper class to derive entity tags from posts, and to parse the entity tags received within
+ * conditional requests. A post's entity tag is a strong tag derived from its version, and from the
+ * denormalized status of its author, which changes without bumping the version. A page of posts
+ * has a strong tag derived from a hash of the identity, version and statuses of its posts, and of
+ * its cursor to the next page.
+ * <p>
+ * Strong tags of compressed representations are suffixed by their content coding, such as {@code
+ * "1-gzip"}, since each coding is a different representation. Conditional requests accept tags of
+ * any coding.
+ */
+final class EntityTags {
+
+  private static final String ANY = "*";
+
+  private static final String WEAK_PREFIX = "W/";
+
+  private static final String PAGE_PREFIX = "p-";
+
+  private static final String INACTIVE_AUTHOR_SUFFIX = "-inactive";
+
+  private static final String CODING_SEPARATOR = "-";
+
+  private static final String SEPARATOR = ":";
+
+  private static final int PAGE_HASH_BYTES = 16;
+
+  /**
+   * Version used for entity tags that can't belong to any post, which will never match a post
+   */
+  private static final long UNMATCHABLE_VERSION = -1L;
+
+  private EntityTags() {
+  }
+
+  /**
+   * Derive the entity tag of a post
+   *
+   * @param post a post
+   * @return the strong entity tag of given post
+   */
+  static EntityTag of(final Post post) {
+    return of(post.getVersion(), post.isAuthorActive());
+  }
+
+  /**
+   * Derive the entity tag of a post at given version. Tags of posts of inactive authors are
+   * suffixed, so they never match the tag of the same version while the author was active.
+   *
+   * @param version        version of a post
+   * @param isAuthorActive denormalized status of the post's author
+   * @return the strong entity tag of a post at given version and author status
+   */
+  static EntityTag of(final long version, final boolean isAuthorActive) {
+    final var value = Long.toString(version);
+    return new EntityTag(isAuthorActive ? value : value + INACTIVE_AUTHOR_SUFFIX);
+  }
+
+  /**
+   * Derive the entity tag of a page of posts. The denormalized author status of each post is part
+   * of the tag, since it changes without bumping the post's version.
+   *
+   * @param posts      posts of the page, in the order they are served
+   * @param nextCursor cursor to the page following the given one, if any
+   * @return the strong entity tag of given page
+   */
+  static EntityTag ofPage(final List<Post> posts, final Optional<String> nextCursor) {
+    return pageTagOf(digestOf(posts, nextCursor));
+  }
+
+  /**
+   * Derive the entity tag of a page of posts wrapped along with its total, which is part of the tag
+   * as well, and which never matches the tag of the same posts served without being wrapped
+   *
+   * @param page       a page of posts
+   * @param nextCursor cursor to the page following the given one, if any
+   * @return the strong entity tag of given page
+   */
+  static EntityTag ofPage(final PostPage page, final Optional<String> nextCursor) {
+    final var digest = digestOf(page.getItems(), nextCursor);
+    final var value = SEPARATOR + page.getTotal() + SEPARATOR + page.getPageSize();
+    digest.update(value.getBytes(StandardCharsets.UTF_8));
+    return pageTagOf(digest);
+  }
+
+  /**
+   * Derive the entity tag of an already serialized page of posts, used for pages whose posts don't
+   * carry the properties the tag of a page is usually derived from
+   *
+   * @param json       serialized page
+   * @param nextCursor cursor to the page following the given one, if any
+   * @return the strong entity tag of given page
+   */
+  static EntityTag ofPage(final byte[] json, final Optional<String> nextCursor) {
+    final var digest = newDigest();
+    digest.update(json);
+    nextCursor.ifPresent(value -> digest.update(value.getBytes(StandardCharsets.UTF_8)));
+    return pageTagOf(digest);
+  }
+
+  /**
+   * Derive the entity tag of a representation compressed with given coding. Weak tags are kept as
+   * they are, since compression doesn't change what they are equivalent to.
+   *
+   * @param tag      entity tag of the uncompressed representation
+   * @param encoding content coding of the compressed representation
+   * @return the entity tag of the compressed representation
+   */
+  static EntityTag encoded(final EntityTag tag, final ContentEncoding encoding) {
+    return tag.isWeak()
+        ? tag
+        : new EntityTag(tag.getValue() + CODING_SEPARATOR + encoding.token());
+  }
+
+  /**
+   * Find the tag listed by an {@code If-None-Match} header that matches given entity tag, which
+   * means the client already has the current representation. As required for {@code
+   * If-None-Match}, tags are compared weakly, ignoring the weak indicator, and regardless of the
+   * content coding they were sent with.
+   *
+   * @param ifNoneMatch value of the {@code If-None-Match} header, which might list several tags
+   * @param tag         entity tag of the current representation
+   * @return the entity tag to send back within a {@code 304} response, keeping the content coding
+   * of the matching tag, or {@code Optional.empty()} if none of the listed tags matches
+   */
+  static Optional<EntityTag> matching(final String ifNoneMatch, final EntityTag tag) {
+    if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+      return Optional.empty();
+    }
+
+    return Arrays.stream(ifNoneMatch.split(","))
+        .map(String::trim)
+        .map(EntityTags::stripWeakIndicator)
+        .filter(value -> ANY.equals(value) || isQuoted(value))
+        .map(value -> ANY.equals(value) ? tag.getValue() : value.substring(1, value.length() - 1))
+        .filter(value -> tag.getValue().equals(stripCoding(value)))
+        .findFirst()
+        .map(value -> new EntityTag(value, tag.isWeak()));
+  }
+
+  /**
+   * Parse the post version required by an {@code If-Match} header. Weak or malformed entity tags
+   * never match a post, since {@code If-Match} requires a strong comparison. Only the version is
+   * required, as updates are guarded by the version alone, regardless of the author status.
+   *
+   * @param ifMatch value of the {@code If-Match} header
+   * @return the required version, or {@code Optional.empty()} if any version is acceptable
+   */
+  static Optional<Long> versionOf(final String ifMatch) {
+    final var value = Optional.ofNullable(ifMatch).map(String::trim).orElse(ANY);
+    if (value.isEmpty() || ANY.equals(value)) {
+      return Optional.empty();
+    }
+
+    if (!isQuoted(value)) {
+      return Optional.of(UNMATCHABLE_VERSION);
+    }
+
+    final var tag = stripCoding(value.substring(1, value.length() - 1));
+    final var version = tag.endsWith(INACTIVE_AUTHOR_SUFFIX)
+        ? tag.substring(0, tag.length() - INACTIVE_AUTHOR_SUFFIX.length())
+        : tag;
+    try {
+      return Optional.of(Long.parseLong(version));
+    } catch (NumberFormatException e) {
+      return Optional.of(UNMATCHABLE_VERSION);
+    }
+  }
+
+  private static MessageDigest digestOf(final List<Post> posts, final Optional<String> nextCursor) {
+    final var digest = newDigest();
+    posts.forEach(post -> {
+      final var value = post.getId() + SEPARATOR + post.getVersion() + SEPARATOR
+          + post.isEnabled() + SEPARATOR + post.isAuthorActive() + SEPARATOR;
+      digest.update(value.getBytes(StandardCharsets.UTF_8));
+    });
+    nextCursor.ifPresent(value -> digest.update(value.getBytes(StandardCharsets.UTF_8)));
+    return digest;
+  }
+
+  private static EntityTag pageTagOf(final MessageDigest digest) {
+    final var hash = Arrays.copyOf(digest.digest(), PAGE_HASH_BYTES);
+    final var encodedHash = Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+    return new EntityTag(PAGE_PREFIX + encodedHash);
+  }
+
+  private static String stripWeakIndicator(final String tag) {
+    return tag.startsWith(WEAK_PREFIX) ? tag.substring(WEAK_PREFIX.length()) : tag;
+  }
+
+  private static boolean isQuoted(final String tag) {
+    return tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"");
+  }
+
+  private static String stripCoding(final String tag) {
+    return Arrays.stream(ContentEncoding.values())
+        .map(encoding -> CODING_SEPARATOR + encoding.token())
+        .filter(tag::endsWith)
+        .findFirst()
+        .map(suffix -> tag.substring(0, tag.length() - suffix.length()))
+        .orElse(tag);
+  }
+
+  private static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is required to be supported by every JVM", e);
+    }
+  }
+}
@@ -0,0 +1,16 @@
+package com.artspace.post;
+
+import javax.validation.ValidationException;
+
+/**
+ * {@code InactiveAuthorException} is thrown when a post is submitted by an author that doesn't
+ * exist or that is not active at the moment.
+ *
+ * <p>{@code InactiveAuthorException} is an <em>unchecked exception</em>.
+ */
+public class InactiveAuthorException extends ValidationException {
+
+  public InactiveAuthorException(final String username) {
+    super("user must exists and be an active user. validated username: " + username);
+  }
+}
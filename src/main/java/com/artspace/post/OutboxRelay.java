@@ -0,0 +1,155 @@
+package com.artspace.post;
+
+import com.artspace.post.data.OutboxEvent;
+import com.artspace.post.data.PostDataAccess;
+import com.artspace.post.outgoing.Action;
+import com.artspace.post.outgoing.DataEmitter;
+import com.artspace.post.outgoing.PostDTO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.scheduler.Scheduled;
+import io.quarkus.scheduler.Scheduled.ConcurrentExecution;
+import io.smallrye.mutiny.Uni;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import org.bson.types.ObjectId;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Background job that relays the pending post events, stored in the outbox along with the post
+ * changes, to the message broker. Events are drained in batches, from the oldest to the newest, and
+ * are only marked as sent once acknowledged by the broker.
+ * <p>
+ * Each batch is claimed before being relayed, leasing its events to this instance, so the relays of
+ * other instances never relay the same events at the same time. Events that are not acknowledged
+ * will be relayed again once their lease expires, by any instance, therefore each event is
+ * delivered at least once. The lease must outlast the time it takes to relay a batch.
+ * <p>
+ * The number of pending events and the age of the oldest one are exported as the {@code
+ * post_outbox_depth} and {@code post_outbox_relay_lag} gauges.
+ * <p>
+ * Configurations for this job are under the prefix {@code post.outbox.relay.*}.
+ */
+@ApplicationScoped
+class OutboxRelay {
+
+  private static final Duration BATCH_TIMEOUT = Duration.ofSeconds(30);
+
+  @ConfigProperty(name = "post.outbox.relay.enabled", defaultValue = "true")
+  boolean isEnabled;
+
+  @ConfigProperty(name = "post.outbox.relay.batch-size", defaultValue = "100")
+  int batchSize;
+
+  @ConfigProperty(name = "post.outbox.relay.lease", defaultValue = "PT2M")
+  Duration lease;
+
+  @Inject
+  Logger logger;
+
+  @Inject
+  PostDataAccess postDataAccess;
+
+  @Inject
+  PostMapper postMapper;
+
+  @Inject
+  DataEmitter<PostDTO> emitter;
+
+  @Inject
+  MeterRegistry registry;
+
+  final AtomicLong depth = new AtomicLong();
+
+  final AtomicLong lagMillis = new AtomicLong();
+
+  @PostConstruct
+  void init() {
+    Gauge.builder("post_outbox_depth", depth, AtomicLong::get)
+        .description("Number of post events waiting to be relayed to the message broker")
+        .register(registry);
+    Gauge.builder("post_outbox_relay_lag", lagMillis, AtomicLong::get)
+        .description("Age of the oldest post event waiting to be relayed to the message broker")
+        .baseUnit("milliseconds")
+        .register(registry);
+  }
+
+  @Scheduled(
+      every = "{post.outbox.relay.every}",
+      concurrentExecution = ConcurrentExecution.SKIP)
+  void relay() {
+    if (!isEnabled) {
+      return;
+    }
+
+    try {
+      var relayedEvents = 0L;
+      var isDrained = false;
+      while (!isDrained) {
+        final var batch = this.postDataAccess.claimPendingEvents(batchSize, lease)
+            .await()
+            .atMost(BATCH_TIMEOUT);
+        final var sentEvents = batch.isEmpty()
+            ? 0
+            : this.send(batch).await().atMost(BATCH_TIMEOUT);
+
+        relayedEvents += sentEvents;
+        isDrained = batch.size() < batchSize || sentEvents < batch.size();
+      }
+
+      if (relayedEvents > 0) {
+        logger.debugf("Outbox relay sent %s post events", relayedEvents);
+      }
+    } finally {
+      this.refreshGauges();
+    }
+  }
+
+  private Uni<Integer> send(final List<OutboxEvent> events) {
+    final List<Uni<ObjectId>> acknowledgements = events.stream()
+        .map(event -> Uni.createFrom()
+            .deferred(() -> this.emitter.send(event.getCorrelationId(), toDTO(event)))
+            .replaceWith(event.getId())
+            .onFailure().invoke(throwable -> logger.warnf(
+                "[%s] Post event %s was not relayed. %s",
+                event.getCorrelationId(), event.getId(), throwable.getMessage()))
+            .onFailure().recoverWithNull())
+        .collect(Collectors.toList());
+
+    return Uni.combine().all().unis(acknowledgements)
+        .combinedWith(results -> results.stream()
+            .filter(Objects::nonNull)
+            .map(ObjectId.class::cast)
+            .collect(Collectors.toList()))
+        .chain(sentIds -> sentIds.isEmpty()
+            ? Uni.createFrom().item(0)
+            : this.postDataAccess.markAsSent(sentIds).replaceWith(sentIds.size()));
+  }
+
+  private PostDTO toDTO(final OutboxEvent event) {
+    final var postDto = this.postMapper.toDTO(event.getPost());
+    postDto.setAction(Action.valueOf(event.getAction()));
+    return postDto;
+  }
+
+  private void refreshGauges() {
+    try {
+      this.depth.set(this.postDataAccess.countPendingEvents().await().atMost(BATCH_TIMEOUT));
+      this.lagMillis.set(this.postDataAccess.findOldestPendingEvent()
+          .await()
+          .atMost(BATCH_TIMEOUT)
+          .map(createdAt -> Duration.between(createdAt, Instant.now()).toMillis())
+          .orElse(0L));
+    } catch (Exception e) {
+      logger.error("Outbox gauges could not be refreshed", e);
+    }
+  }
+}
@@ -50,6 +50,19 @@ public class Post {
 
   private boolean isEnabled = true;
 
+  /**
+   * Status of the post's author, denormalized from the author's data, so author queries don't need
+   * to join both documents. It is maintained by the data layer whenever an author is updated.
+   */
+  @Schema(readOnly = true)
+  private boolean isAuthorActive;
+
+  /**
+   * Version of the post, incremented on every update, used to detect concurrent modifications
+   */
+  @Schema(readOnly = true)
+  private long version;
+
 
   /**
    * Clones the current instance into a new instance of {@link Post} where this new instance will be
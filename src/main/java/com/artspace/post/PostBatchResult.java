@@ -0,0 +1,68 @@
+package com.artspace.post;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import org.bson.types.ObjectId;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+
+/**
+ * Represents the outcome of a single post submitted within a batch of posts. Results are reported
+ * in the same order the posts were submitted.
+ *
+ * @since 1.0.0
+ */
+@Getter
+@ToString
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@Schema(description = "Outcome of a single post submitted within a batch")
+public class PostBatchResult {
+
+  /**
+   * Possible outcomes of a post submitted within a batch
+   */
+  public enum Status {
+    /**
+     * Post was persisted
+     */
+    CREATED,
+    /**
+     * Post was not persisted since it contains invalid data
+     */
+    INVALID,
+    /**
+     * Post was not persisted since its author doesn't exist or is inactive
+     */
+    REJECTED,
+    /**
+     * Post was valid, but the repository failed to persist its batch, which is persisted all or
+     * nothing
+     */
+    FAILED
+  }
+
+  private final Status status;
+
+  @Schema(description = "Identifier of the persisted post. Only available for created posts")
+  private final ObjectId id;
+
+  @Schema(description = "Why the post was not persisted. Not available for created posts")
+  private final String reason;
+
+  static PostBatchResult created(final ObjectId id) {
+    return new PostBatchResult(Status.CREATED, id, null);
+  }
+
+  static PostBatchResult invalid(final String reason) {
+    return new PostBatchResult(Status.INVALID, null, reason);
+  }
+
+  static PostBatchResult rejected(final String reason) {
+    return new PostBatchResult(Status.REJECTED, null, reason);
+  }
+
+  static PostBatchResult failed(final String reason) {
+    return new PostBatchResult(Status.FAILED, null, reason);
+  }
+}
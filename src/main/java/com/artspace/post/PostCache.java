@@ -0,0 +1,128 @@
+package com.artspace.post;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import org.bson.types.ObjectId;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Bounded, in-process cache of posts, keyed by their identifier, kept in front of the data layer by
+ * the {@link PostService}. Entries are admitted and evicted by frequency, so popular posts stay
+ * cached while posts that are read only once don't push them out.
+ * <p>
+ * Cached posts are copies, never handed out nor changed in place. A post replaces its cached entry
+ * only if it is at the same or a newer version, so a read that raced an update won't overwrite the
+ * updated post. Author status changes don't bump the post version, so posts of an author must be
+ * invalidated when the author changes. Entries also expire after a configurable amount of time,
+ * bounding how long a change made by another instance can be missed.
+ * <p>
+ * Hit, miss, size and eviction metrics are exported under the {@code post_by_id} cache name.
+ * Configurations for this cache are under the prefix {@code post.cache.post.*}.
+ */
+@ApplicationScoped
+class PostCache {
+
+  private static final String CACHE_NAME = "post_by_id";
+
+  @ConfigProperty(name = "post.cache.post.max-size", defaultValue = "10000")
+  long maximumSize;
+
+  @ConfigProperty(name = "post.cache.post.expire-after-write", defaultValue = "PT10M")
+  Duration expireAfterWrite;
+
+  @Inject
+  MeterRegistry registry;
+
+  Cache<ObjectId, Post> cache;
+
+  @PostConstruct
+  void init() {
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(expireAfterWrite)
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+  }
+
+  /**
+   * Retrieves a cached post
+   *
+   * @param id unique object identifier of the post
+   * @return a copy of the cached post, or {@code Optional.empty()} if it is not cached
+   */
+  Optional<Post> getIfPresent(final ObjectId id) {
+    return Optional.ofNullable(cache.getIfPresent(id)).map(PostCache::copyOf);
+  }
+
+  /**
+   * Retrieves every cached post among the given ones
+   *
+   * @param ids unique object identifiers of the posts
+   * @return copies of the cached posts, by their identifier
+   */
+  Map<ObjectId, Post> getAllPresent(final Collection<ObjectId> ids) {
+    final Map<ObjectId, Post> found = new HashMap<>();
+    cache.getAllPresent(ids).forEach((id, post) -> found.put(id, copyOf(post)));
+    return found;
+  }
+
+  /**
+   * Stores a copy of a post, unless a newer version of it is already cached. Posts without an
+   * identifier will be ignored.
+   *
+   * @param post post to be cached
+   */
+  void put(final Post post) {
+    if (post.getId() == null) {
+      return;
+    }
+
+    cache.asMap().merge(post.getId(), copyOf(post),
+        (cached, candidate) -> candidate.getVersion() >= cached.getVersion() ? candidate : cached);
+  }
+
+  /**
+   * Removes a post from the cache, forcing its next lookup to reach the data layer
+   *
+   * @param id unique object identifier of the post
+   */
+  void invalidate(final ObjectId id) {
+    cache.invalidate(id);
+  }
+
+  /**
+   * Removes every cached post of given authors. This walks the whole cache, so it is meant for
+   * author changes, which are far less frequent than post reads.
+   *
+   * @param usernames normalized usernames of the authors
+   */
+  void invalidateAuthors(final Set<String> usernames) {
+    if (!usernames.isEmpty()) {
+      cache.asMap().values().removeIf(post -> usernames.contains(post.getAuthor()));
+    }
+  }
+
+  private static Post copyOf(final Post post) {
+    final var copy = new Post();
+    copy.setId(post.getId());
+    copy.setMessage(post.getMessage());
+    copy.setCreationTime(post.getCreationTime());
+    copy.setAuthor(post.getAuthor());
+    copy.setEnabled(post.isEnabled());
+    copy.setAuthorActive(post.isAuthorActive());
+    copy.setVersion(post.getVersion());
+    return copy;
+  }
+}
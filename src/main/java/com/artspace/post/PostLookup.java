@@ -0,0 +1,44 @@
+package com.artspace.post;
+
+import java.util.List;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+
+/**
+ * Represents the outcome of looking up a set of posts by their ids. Found posts are reported in the
+ * order their ids were first requested, along with the requested ids that could not be served, so
+ * a single malformed or unknown id doesn't fail the whole lookup.
+ *
+ * @since 1.0.0
+ */
+@Getter
+@ToString
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@Schema(description = "Posts found by their ids, along with the ids that were not found")
+public class PostLookup {
+
+  @Schema(description = "Found posts, in the order their ids were requested")
+  private final List<Post> items;
+
+  @Schema(description = "Well-formed ids of posts that don't exist")
+  private final List<String> missing;
+
+  @Schema(description = "Requested ids that are not valid post ids")
+  private final List<String> invalid;
+
+  /**
+   * Build the outcome of a lookup
+   *
+   * @param items   found posts, in request order
+   * @param missing well-formed ids that were not found
+   * @param invalid malformed ids
+   * @return a new lookup outcome
+   */
+  static PostLookup of(final List<Post> items, final List<String> missing,
+      final List<String> invalid) {
+    return new PostLookup(items, missing, invalid);
+  }
+}
@@ -0,0 +1,50 @@
+package com.artspace.post;
+
+import java.util.List;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+
+/**
+ * Represents a page of posts wrapped along with the total number of posts found by its query, so
+ * clients can tell how many pages there are without counting the posts themselves.
+ *
+ * @since 1.0.0
+ */
+@Getter
+@ToString
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@Schema(description = "A page of posts, along with the total number of posts of its query")
+public class PostPage {
+
+  private final List<Post> items;
+
+  @Schema(description = "Number of posts found by the query, across all pages")
+  private final long total;
+
+  @Schema(description = "Index of this page")
+  private final int pageIndex;
+
+  @Schema(description = "Max number of posts per page")
+  private final int pageSize;
+
+  @Schema(description = "Number of pages needed to return every post of the query")
+  private final long pageCount;
+
+  /**
+   * Wrap a page of posts along with the total number of posts of its query
+   *
+   * @param items     posts of the page
+   * @param total     number of posts found by the query, across all pages
+   * @param pageIndex index of the page
+   * @param pageSize  max number of posts per page
+   * @return a new page
+   */
+  static PostPage of(final List<Post> items, final long total, final int pageIndex,
+      final int pageSize) {
+    final var pageCount = (total + pageSize - 1) / pageSize;
+    return new PostPage(items, total, pageIndex, pageSize, pageCount);
+  }
+}
@@ -0,0 +1,41 @@
+package com.artspace.post;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import javax.validation.constraints.AssertTrue;
+import javax.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+
+/**
+ * Represents a partial update of a {@link Post}. Only the post's message and its enabled status can
+ * be updated. Properties left {@code null} will keep their current value, but at least one of them
+ * must be set, since an empty patch would bump the post's version without changing it.
+ *
+ * @since 1.0.0
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+@Data
+@Schema(description = "A partial update of a user post")
+public class PostPatch {
+
+  @Size(min = 1)
+  private String message;
+
+  private Boolean enabled;
+
+  /**
+   * Verify if this patch changes any property of a post
+   *
+   * @return {@code true} if the message or the enabled status is set
+   */
+  @JsonIgnore
+  @AssertTrue(message = "Patch must change the message or the enabled status")
+  public boolean isChanging() {
+    return message != null || enabled != null;
+  }
+}
@@ -2,38 +2,57 @@ package com.artspace.post;
 
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 
+import com.artspace.post.TimelineCache.TimelinePage;
+import com.artspace.post.data.InvalidSearchException;
+import com.artspace.post.data.PostProjection;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.micrometer.core.annotation.Counted;
 import io.micrometer.core.annotation.Timed;
+import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
 import java.net.URI;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import javax.validation.Valid;
+import javax.validation.Validator;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.HeaderParam;
+import javax.ws.rs.PATCH;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
 import javax.ws.rs.core.UriInfo;
 import lombok.AllArgsConstructor;
+import org.bson.types.ObjectId;
 import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.enums.SchemaType;
+import org.eclipse.microprofile.openapi.annotations.headers.Header;
 import org.eclipse.microprofile.openapi.annotations.media.Content;
 import org.eclipse.microprofile.openapi.annotations.media.Schema;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 import org.jboss.logging.Logger;
 import org.jboss.resteasy.reactive.RestPath;
+import org.jboss.resteasy.reactive.server.ServerExceptionMapper;
 
 @Path("/api/posts")
 @Tag(name = "posts")
@@ -44,30 +63,62 @@ public class PostResource {
 
   protected static final String CORRELATION_HEADER = "X-Request-ID";
   protected static final String PARAM_SEPARATOR = ",";
+  protected static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+  protected static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+  protected static final int MAX_BATCH_SIZE = 500;
+  protected static final int MAX_LOOKUP_SIZE = 1000;
 
   final PostService postService;
   final Logger logger;
+  final Validator validator;
+  final ObjectMapper objectMapper;
+  final TimelineCache timelineCache;
+  final CacheControlPolicy cacheControl;
 
   @Operation(summary = "Returns a post by it's id")
   @GET
   @Path("/{postId}")
   @APIResponse(
       responseCode = "200",
+      headers = @Header(name = HttpHeaders.ETAG, description = "Current version of the post"),
       content =
       @Content(mediaType = APPLICATION_JSON, schema = @Schema(implementation = Post.class)))
   @APIResponse(responseCode = "204", description = "Post not found for a given postId")
+  @APIResponse(responseCode = "304", description = "Post still matches the If-None-Match header")
   @APIResponse(responseCode = "400", description = "postId is invalid")
   @Timed(value = "post_resource_get_by_id", description = "How long it takes to find a post by Id")
   @Counted(value = "post_resource_get_by_id", description = "How many times find a post by Id was executed")
   public Uni<Response> getPostById(@NotEmpty @NotNull @RestPath String postId,
+      @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch,
       @NotBlank @HeaderParam(CORRELATION_HEADER) String correlationId) {
 
+    if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+      return retrievePostById(postId, correlationId);
+    }
+
+    return this.postService.retrievePostRevision(postId).flatMap(revision -> {
+      final var tag = revision.map(EntityTags::of)
+          .flatMap(current -> EntityTags.matching(ifNoneMatch, current));
+      if (tag.isPresent()) {
+        logger.debugf("[%s] Post %s not modified", correlationId, postId);
+        final var response = cacheControl.forPostById(Response.notModified(tag.get()));
+        return Uni.createFrom().item(response.build());
+      }
+
+      return retrievePostById(postId, correlationId);
+    });
+  }
+
+  private Uni<Response> retrievePostById(final String postId, final String correlationId) {
     return this.postService.retrievePostById(postId).map(optionalPost -> {
       var response = Response.noContent().build();
 
       if (optionalPost.isPresent()) {
         logger.debugf("[%s] Found post %s", correlationId, optionalPost.get());
-        response = Response.ok(optionalPost.get()).build();
+        response = cacheControl.forPostById(Response.ok(optionalPost.get()))
+            .tag(EntityTags.of(optionalPost.get()))
+            .build();
       } else {
         logger.debugf("[%] Post not found with postId %s", correlationId, postId);
       }
@@ -99,13 +150,124 @@ public class PostResource {
     });
   }
 
+  @Operation(summary = "Saves a batch of posts")
+  @POST
+  @Path("/batch")
+  @APIResponse(
+      responseCode = "200",
+      description = "Outcome of each post, in the same order the posts were submitted",
+      content =
+      @Content(
+          mediaType = APPLICATION_JSON,
+          schema = @Schema(type = SchemaType.ARRAY, implementation = PostBatchResult.class)))
+  @APIResponse(
+      responseCode = "400",
+      description = "Batch is empty or exceeds the maximum amount of posts")
+  @Timed(value = "post_resource_save_batch", description = "How long it takes to save a batch of posts")
+  @Counted(value = "post_resource_save_batch", description = "How many times save a batch of posts was executed")
+  public Uni<List<PostBatchResult>> savePosts(
+      @NotNull @Size(min = 1, max = MAX_BATCH_SIZE) final List<Post> posts,
+      @NotBlank @HeaderParam(CORRELATION_HEADER) String correlationId) {
+    final var violations = posts.stream().map(this::violationsOf).collect(Collectors.toList());
+    final var validPosts = IntStream.range(0, posts.size())
+        .filter(index -> violations.get(index).isEmpty())
+        .mapToObj(posts::get)
+        .collect(Collectors.toList());
+
+    return postService.insertPosts(validPosts, correlationId).map(results -> {
+      final var validResults = results.iterator();
+      final var batchResults = violations.stream()
+          .map(postViolations -> postViolations.isEmpty()
+              ? validResults.next()
+              : PostBatchResult.invalid(String.join(", ", postViolations)))
+          .collect(Collectors.toList());
+      logger.debugf("[%s] Batch of %d posts processed", correlationId, batchResults.size());
+      return batchResults;
+    });
+  }
+
+  @Operation(summary = "Looks up posts by a list of ids, sent in the request body")
+  @POST
+  @Path("/lookup")
+  @Compressed
+  @APIResponse(
+      responseCode = "200",
+      description = "Found posts, in request order, along with the missing and invalid ids",
+      content =
+      @Content(mediaType = APPLICATION_JSON, schema = @Schema(implementation = PostLookup.class)))
+  @APIResponse(
+      responseCode = "400",
+      description = "List of ids is empty or exceeds the maximum amount of ids")
+  @Timed(value = "post_resource_lookup", description = "How long it takes to look up posts by ids")
+  @Counted(value = "post_resource_lookup", description = "How many times look up posts by ids was executed")
+  public Uni<PostLookup> lookupPosts(
+      @NotNull @Size(min = 1, max = MAX_LOOKUP_SIZE) final List<@NotNull String> ids,
+      @NotBlank @HeaderParam(CORRELATION_HEADER) String correlationId) {
+    logger.debugf("[%s] Look up %d posts by ids", correlationId, ids.size());
+
+    return postService.lookupPosts(ids, Optional.empty()).invoke(lookup ->
+        logger.debugf("[%s] Found %d posts, with %d missing and %d invalid ids", correlationId,
+            lookup.getItems().size(), lookup.getMissing().size(), lookup.getInvalid().size()));
+  }
+
+  @Operation(summary = "Partially updates a post")
+  @PATCH
+  @Path("/{postId}")
+  @APIResponse(
+      responseCode = "200",
+      description = "The updated post",
+      headers = @Header(name = HttpHeaders.ETAG, description = "Current version of the post"),
+      content =
+      @Content(mediaType = APPLICATION_JSON, schema = @Schema(implementation = Post.class)))
+  @APIResponse(
+      responseCode = "400",
+      description = "postId or changes contain invalid data, or changes are empty")
+  @APIResponse(responseCode = "404", description = "Post not found for a given postId")
+  @APIResponse(
+      responseCode = "412",
+      description = "Post is no longer at the version required by If-Match")
+  @Timed(value = "post_resource_patch", description = "How long it takes to patch a post")
+  @Counted(value = "post_resource_patch", description = "How many times patch a post was executed")
+  public Uni<Response> patchPost(@NotEmpty @NotNull @RestPath String postId,
+      @NotNull @Valid final PostPatch patch,
+      @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch,
+      @NotBlank @HeaderParam(CORRELATION_HEADER) String correlationId) {
+    final var expectedVersion = EntityTags.versionOf(ifMatch).orElse(null);
+
+    return postService.updatePost(new ObjectId(postId), patch, expectedVersion, correlationId)
+        .map(optionalPost -> {
+          var response = Response.status(Status.NOT_FOUND).build();
+
+          if (optionalPost.isPresent()) {
+            logger.debugf("[%s] Post updated %s", correlationId, optionalPost.get());
+            response = Response.ok(optionalPost.get())
+                .tag(EntityTags.of(optionalPost.get()))
+                .build();
+          } else {
+            logger.debugf("[%s] Post not found with postId %s", correlationId, postId);
+          }
+
+          return response;
+        });
+  }
+
   @Operation(summary = "Query posts")
   @GET
+  @Compressed
   @APIResponse(
       responseCode = "200",
+      headers = {
+          @Header(name = NEXT_CURSOR_HEADER, description = "Cursor to the next page"),
+          @Header(name = HttpHeaders.ETAG, description = "Hash of the posts within the page")
+      },
+      description = "Posts of the page, wrapped into a PostPage when envelope is requested",
       content =
       @Content(mediaType = APPLICATION_JSON, schema = @Schema(implementation = Post.class)))
-  @APIResponse(responseCode = "400", description = "Query params contains invalid data")
+  @APIResponse(responseCode = "304", description = "Page still matches the If-None-Match header")
+  @APIResponse(
+      responseCode = "400",
+      description = "Query params contains invalid data, or an envelope was requested for a query "
+          + "by status only, or along with fields")
   @Timed(value = "post_resource_query", description = "How long it takes to query a post")
   @Counted(value = "post_resource_query", description = "How many times query post was executed")
   public Uni<Response> queryPosts(
@@ -114,11 +276,130 @@ public class PostResource {
       @DefaultValue("enabled") @QueryParam("status") String postStatus,
       @DefaultValue("0") @PositiveOrZero @QueryParam("index") int pageIndex,
       @DefaultValue("10") @Positive @QueryParam("size") int pageSize,
+      @QueryParam("cursor") String cursor,
+      @DefaultValue("false") @QueryParam("envelope") boolean isEnveloped,
+      @QueryParam("fields") String fields,
+      @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch,
       @NotBlank @HeaderParam(CORRELATION_HEADER) String correlationId
   ) {
-    return isQueryByIds(ids)
-        ? getPostsByIds(ids, correlationId)
-        : getPostsByQuery(username, postStatus, pageIndex, pageSize, correlationId);
+    final var projection = Optional.ofNullable(fields)
+        .filter(value -> !value.isBlank())
+        .map(PostProjection::parse);
+    if (projection.isPresent() && isEnveloped) {
+      throw new InvalidSearchException("Fields can't be projected into an envelope");
+    }
+
+    if (projection.isPresent()) {
+      return isQueryByIds(ids)
+          ? getProjectedPostsByIds(ids, projection.get(), ifNoneMatch, correlationId)
+          : getProjectedPostsByQuery(username, postStatus, pageIndex, pageSize, cursor,
+              projection.get(), ifNoneMatch, correlationId);
+    }
+
+    if (isQueryByIds(ids)) {
+      return getPostsByIds(ids, isEnveloped, ifNoneMatch, correlationId);
+    }
+
+    return isEnveloped
+        ? getPostPageByQuery(username, postStatus, pageIndex, pageSize, cursor, ifNoneMatch,
+            correlationId)
+        : getPostsByQuery(username, postStatus, pageIndex, pageSize, cursor, ifNoneMatch,
+            correlationId);
+  }
+
+  @Operation(summary = "Query posts, streaming them as newline delimited JSON")
+  @GET
+  @Produces(APPLICATION_NDJSON)
+  @APIResponse(
+      responseCode = "200",
+      description = "One post per line, streamed as they are fetched",
+      content =
+      @Content(mediaType = APPLICATION_NDJSON, schema = @Schema(implementation = Post.class)))
+  @APIResponse(responseCode = "400", description = "Query params contains invalid data")
+  @Timed(value = "post_resource_query_stream", description = "How long it takes to start streaming a post query")
+  @Counted(value = "post_resource_query_stream", description = "How many times a streamed post query was executed")
+  public Multi<String> streamPostsAsNdjson(
+      @QueryParam("ids") String ids,
+      @QueryParam("author") String username,
+      @DefaultValue("enabled") @QueryParam("status") String postStatus,
+      @DefaultValue("0") @PositiveOrZero @QueryParam("index") int pageIndex,
+      @DefaultValue("10") @Positive @QueryParam("size") int pageSize,
+      @QueryParam("cursor") String cursor,
+      @NotBlank @HeaderParam(CORRELATION_HEADER) String correlationId
+  ) {
+    return streamPosts(ids, username, postStatus, pageIndex, pageSize, cursor, correlationId)
+        .map(post -> toJson(post) + "\n");
+  }
+
+  @Operation(summary = "Query posts, streaming them as server sent events")
+  @GET
+  @Produces(MediaType.SERVER_SENT_EVENTS)
+  @APIResponse(
+      responseCode = "200",
+      description = "One event per post, streamed as they are fetched",
+      content =
+      @Content(
+          mediaType = MediaType.SERVER_SENT_EVENTS,
+          schema = @Schema(implementation = Post.class)))
+  @APIResponse(responseCode = "400", description = "Query params contains invalid data")
+  @Timed(value = "post_resource_query_stream", description = "How long it takes to start streaming a post query")
+  @Counted(value = "post_resource_query_stream", description = "How many times a streamed post query was executed")
+  public Multi<String> streamPostsAsEvents(
+      @QueryParam("ids") String ids,
+      @QueryParam("author") String username,
+      @DefaultValue("enabled") @QueryParam("status") String postStatus,
+      @DefaultValue("0") @PositiveOrZero @QueryParam("index") int pageIndex,
+      @DefaultValue("10") @Positive @QueryParam("size") int pageSize,
+      @QueryParam("cursor") String cursor,
+      @NotBlank @HeaderParam(CORRELATION_HEADER) String correlationId
+  ) {
+    return streamPosts(ids, username, postStatus, pageIndex, pageSize, cursor, correlationId)
+        .map(this::toJson);
+  }
+
+  private Multi<Post> streamPosts(String ids, String username, String postStatus, int pageIndex,
+      int pageSize, String cursor, String correlationId) {
+    if (isQueryByIds(ids)) {
+      logger.debugf("[%s] Streaming posts by ids: %s", correlationId, ids);
+      return postService.streamPostByIds(List.of(ids.split(PARAM_SEPARATOR)));
+    }
+
+    logger.debugf("[%s] Streaming posts for %s with status %s, at page %s with %s per page",
+        correlationId, username, postStatus, pageIndex, pageSize);
+    return postService.searchPosts()
+        .atPage(pageIndex)
+        .pageSize(pageSize)
+        .byAuthor(username)
+        .byPostStatus(postStatus)
+        .after(cursor)
+        .stream();
+  }
+
+  private String toJson(final Post post) {
+    try {
+      return objectMapper.writeValueAsString(post);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Unable to serialize post " + post.getId(), e);
+    }
+  }
+
+  private byte[] toJsonBytes(final List<Post> posts) {
+    try {
+      return objectMapper.writeValueAsBytes(posts);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException(
+          "Unable to serialize a page of " + posts.size() + " posts", e);
+    }
+  }
+
+  private byte[] toJsonBytes(final List<Post> posts, final PostProjection projection) {
+    final var projected = posts.stream().map(projection::apply).collect(Collectors.toList());
+    try {
+      return objectMapper.writeValueAsBytes(projected);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException(
+          "Unable to serialize a projection of " + posts.size() + " posts", e);
+    }
   }
 
   private boolean isQueryByIds(final String ids) {
@@ -129,31 +410,180 @@ public class PostResource {
     return Stream.of(ids.split(PARAM_SEPARATOR)).anyMatch(s -> !s.trim().isBlank());
   }
 
-  private Uni<Response> getPostsByQuery(String username,
-      String postStatus, int pageIndex, int pageSize, String correlationId) {
+  private Uni<Response> getPostsByQuery(String username, String postStatus, int pageIndex,
+      int pageSize, String cursor, String ifNoneMatch, String correlationId) {
     logger.debugf("[%s] Querying posts for %s with status %, at page %s with %s per page",
         correlationId, username, postStatus, pageIndex, pageSize);
 
-    var postsByAuthor = postService.searchPosts()
+    final var isCacheable = timelineCache.isCacheable(username, pageIndex, cursor);
+    if (isCacheable) {
+      final var cached = timelineCache.get(username, postStatus, pageIndex, pageSize);
+      if (cached.isPresent()) {
+        logger.debugf("[%s] Serving cached page %s of %s", correlationId, pageIndex, username);
+        return Uni.createFrom().item(responseOf(cached.get(), ifNoneMatch));
+      }
+    }
+
+    final var generation = isCacheable ? timelineCache.generationOf(username) : 0L;
+    final var search = postService.searchPosts()
+        .atPage(pageIndex)
+        .pageSize(pageSize)
+        .byAuthor(username)
+        .byPostStatus(postStatus)
+        .after(cursor);
+
+    return search.invoke().map(entities -> {
+      logger.debugf("[%s] Found %s posts for %s", correlationId, entities.size(), username);
+      final var nextCursor = search.nextCursorOf(entities);
+      final var tag = EntityTags.ofPage(entities, nextCursor);
+      if (isCacheable) {
+        final var page = new TimelinePage(toJsonBytes(entities), nextCursor.orElse(null), tag);
+        timelineCache.put(username, postStatus, pageIndex, pageSize, generation, page);
+        return responseOf(page, ifNoneMatch);
+      }
+
+      return responseOf(entities, tag, nextCursor, ifNoneMatch);
+    });
+  }
+
+  /**
+   * Query a page of an author's posts, wrapped along with the author's number of posts, which is
+   * read from materialized counters, along with the page itself. Wrapped pages are never cached.
+   */
+  private Uni<Response> getPostPageByQuery(String username, String postStatus, int pageIndex,
+      int pageSize, String cursor, String ifNoneMatch, String correlationId) {
+    if (username == null || username.isBlank()) {
+      throw new InvalidSearchException("Envelopes are only available for queries by author");
+    }
+
+    logger.debugf("[%s] Querying page %s of posts for %s with status %s, with %s per page",
+        correlationId, pageIndex, username, postStatus, pageSize);
+    final var search = postService.searchPosts()
         .atPage(pageIndex)
         .pageSize(pageSize)
         .byAuthor(username)
         .byPostStatus(postStatus)
-        .invoke();
+        .after(cursor);
 
-    return postsByAuthor.map(entities -> {
+    return Uni.combine().all()
+        .unis(search.invoke(), postService.countPosts(username, postStatus))
+        .asTuple()
+        .map(result -> {
+          final var page = PostPage.of(result.getItem1(), result.getItem2(), pageIndex, pageSize);
+          logger.debugf("[%s] Found %s of %s posts for %s", correlationId,
+              page.getItems().size(), page.getTotal(), username);
+          final var nextCursor = search.nextCursorOf(page.getItems());
+          return responseOf(page, EntityTags.ofPage(page, nextCursor), nextCursor, ifNoneMatch);
+        });
+  }
+
+  /**
+   * Query posts reading, and serializing, only the projected fields of each post. Projected pages
+   * are never cached, and their entity tag is derived from their serialized body, since projected
+   * posts might not have the properties the tag of a page is usually derived from.
+   */
+  private Uni<Response> getProjectedPostsByQuery(String username, String postStatus,
+      int pageIndex, int pageSize, String cursor, PostProjection projection, String ifNoneMatch,
+      String correlationId) {
+    logger.debugf("[%s] Querying %s of posts for %s with status %s, at page %s with %s per page",
+        correlationId, projection.getFields(), username, postStatus, pageIndex, pageSize);
+    final var search = postService.searchPosts()
+        .atPage(pageIndex)
+        .pageSize(pageSize)
+        .byAuthor(username)
+        .byPostStatus(postStatus)
+        .after(cursor)
+        .projectedTo(projection);
+
+    return search.invoke().map(entities -> {
       logger.debugf("[%s] Found %s posts for %s", correlationId, entities.size(), username);
-      return Response.ok(entities).build();
+      final var nextCursor = search.nextCursorOf(entities);
+      final var json = toJsonBytes(entities, projection);
+      return responseOf(json, EntityTags.ofPage(json, nextCursor), nextCursor, ifNoneMatch);
+    });
+  }
+
+  private Uni<Response> getProjectedPostsByIds(final String ids,
+      final PostProjection projection, final String ifNoneMatch, String correlationId) {
+    logger.debugf("[%s] Query %s of posts by ids: %s", correlationId, projection.getFields(), ids);
+
+    final var postIds = List.of(ids.split(PARAM_SEPARATOR));
+    return postService.retrievePostByIds(postIds, Optional.of(projection)).map(entities -> {
+      logger.debugf("[%s] Found %s posts", correlationId, entities.size());
+      final var json = toJsonBytes(entities, projection);
+      return responseOf(json, EntityTags.ofPage(json, Optional.empty()), Optional.empty(),
+          ifNoneMatch);
     });
   }
 
-  private Uni<Response> getPostsByIds(final String ids, String correlationId) {
+  private Response responseOf(final Object entity, final EntityTag tag,
+      final Optional<String> nextCursor, final String ifNoneMatch) {
+    final var matchingTag = EntityTags.matching(ifNoneMatch, tag);
+    if (matchingTag.isPresent()) {
+      return cacheControl.forQuery(Response.notModified(matchingTag.get())).build();
+    }
+
+    final var response = cacheControl.forQuery(Response.ok(entity)).tag(tag);
+    nextCursor.ifPresent(value -> response.header(NEXT_CURSOR_HEADER, value));
+    return response.build();
+  }
+
+  private Response responseOf(final TimelinePage page, final String ifNoneMatch) {
+    final var matchingTag = EntityTags.matching(ifNoneMatch, page.getEntityTag());
+    if (matchingTag.isPresent()) {
+      return cacheControl.forQuery(Response.notModified(matchingTag.get())).build();
+    }
+
+    final var response = Response.ok(page.getJson(), MediaType.APPLICATION_JSON_TYPE)
+        .tag(page.getEntityTag());
+    page.getNextCursor().ifPresent(value -> response.header(NEXT_CURSOR_HEADER, value));
+    return cacheControl.forQuery(response).build();
+  }
+
+  private Uni<Response> getPostsByIds(final String ids, final boolean isEnveloped,
+      final String ifNoneMatch, String correlationId) {
     logger.debugf("[%s] Query posts by ids: %s", correlationId, ids);
 
     final var postIds = List.of(ids.split(PARAM_SEPARATOR));
     return postService.retrievePostByIds(postIds).map(entities -> {
       logger.debugf("[%s] Found %s posts for %s", correlationId, entities.size(), entities);
-      return Response.ok(entities).build();
+      if (isEnveloped) {
+        final var page = PostPage.of(entities, entities.size(), 0, Math.max(1, entities.size()));
+        return responseOf(page, EntityTags.ofPage(page, Optional.empty()), Optional.empty(),
+            ifNoneMatch);
+      }
+
+      return responseOf(entities, EntityTags.ofPage(entities, Optional.empty()), Optional.empty(),
+          ifNoneMatch);
     });
   }
+
+  private List<String> violationsOf(final Post post) {
+    if (post == null) {
+      return List.of("post must not be null");
+    }
+
+    return validator.validate(post).stream()
+        .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+        .sorted()
+        .collect(Collectors.toList());
+  }
+
+  @ServerExceptionMapper
+  public Response mapInvalidSearch(final InvalidSearchException exception) {
+    logger.debugf("Request with invalid search arguments. %s", exception.getMessage());
+    return Response.status(Status.BAD_REQUEST).build();
+  }
+
+  @ServerExceptionMapper
+  public Response mapVersionConflict(final PostVersionConflictException exception) {
+    logger.debugf("Post not updated. %s", exception.getMessage());
+    return Response.status(Status.PRECONDITION_FAILED).build();
+  }
+
+  @ServerExceptionMapper
+  public Response mapInactiveAuthor(final InactiveAuthorException exception) {
+    logger.debugf("Post not persisted. %s", exception.getMessage());
+    return Response.status(Status.BAD_REQUEST).build();
+  }
 }
\ No newline at end of file
@@ -1,20 +1,28 @@
 package com.artspace.post;
 
+import com.artspace.post.data.InvalidSearchException;
+import com.artspace.post.data.OutboxEvent;
 import com.artspace.post.data.PaginatedSearch;
 import com.artspace.post.data.PostDataAccess;
+import com.artspace.post.data.PostProjection;
 import com.artspace.post.outgoing.Action;
-import com.artspace.post.outgoing.DataEmitter;
-import com.artspace.post.outgoing.PostDTO;
+import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
-import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import javax.enterprise.context.ApplicationScoped;
-import javax.transaction.Transactional;
-import javax.transaction.Transactional.TxType;
 import javax.validation.Valid;
 import lombok.AllArgsConstructor;
+import org.bson.types.ObjectId;
 
 /**
  * Service class to provide access to user's post data
@@ -25,13 +33,11 @@ import lombok.AllArgsConstructor;
 @ApplicationScoped
 public class PostService {
 
-  private static final Duration TIMEOUT = Duration.ofSeconds(2);
-
   final PostDataAccess postDataAccess;
 
-  final PostMapper postMapper;
+  final PostCache postCache;
 
-  final DataEmitter<PostDTO> emitter;
+  final TimelineCache timelineCache;
 
   private static Author normalizeAuthor(final Author input) {
     return input.withUsername(normalizeUserName(input.getUsername()));
@@ -46,11 +52,6 @@ public class PostService {
         .filter(value -> !value.isBlank());
   }
 
-  private static Author copyTo(final Author source, final Author receiver) {
-    receiver.setActive(source.isActive());
-    return receiver;
-  }
-
   /**
    * Register a valid new Author into the repository. Author data will be normalized before being
    * registered, including setting the username to lowercase
@@ -62,7 +63,9 @@ public class PostService {
    *                                                       data
    */
   public Uni<Author> registerAuthor(@Valid final Author author) {
-    return this.postDataAccess.persist(normalizeAuthor(author));
+    final var normalizedAuthor = normalizeAuthor(author);
+    return this.postDataAccess.persist(normalizedAuthor)
+        .invoke(() -> this.invalidateAuthors(Set.of(normalizedAuthor.getUsername())));
   }
 
   /**
@@ -71,7 +74,9 @@ public class PostService {
    * @param author author to be updated
    */
   public Uni<Optional<Author>> updateAuthor(@Valid final Author author) {
-    return this.postDataAccess.merge(normalizeAuthor(author));
+    final var normalizedAuthor = normalizeAuthor(author);
+    return this.postDataAccess.merge(normalizedAuthor)
+        .invoke(() -> this.invalidateAuthors(Set.of(normalizedAuthor.getUsername())));
   }
 
 
@@ -89,32 +94,27 @@ public class PostService {
   }
 
   /**
-   * If given {@link Author} is already persisted the previous data will be updated. If this is a
-   * new author, it will be inserted into the repository
+   * Inserts or updates a batch of authors, by their usernames, with a single round trip to the
+   * repository. Authors will be normalized, and if the same username is found more than once only
+   * its last occurrence will be kept.
    * <p>
-   * Due to a panache limitations, regarding transactions for mongodb, which is still experimental,
-   * and it doesn't support reactive repositories, this method must be a blocking operation. Refer
-   * to <a href="https://quarkus.io/guides/mongodb-panache#reactive">Quarkus Reactive Entities and
-   * Repositories Guide-</a> for more details
+   * Authors are expected to be valid. No validation will be done at this service layer.
    *
-   * @param author to be updated or inserted into the repository
-   * @return an {@link Uni} that will resolve it the updated/inserted author
+   * @param authors authors to be updated or inserted into the repository, in order of occurrence
+   * @return an {@link Uni} that will resolve into the number of authors updated or inserted
    */
-  @Transactional(TxType.REQUIRED)
-  public Optional<Author> persistOrUpdateAuthor(@Valid final Author author) {
-    final var foundAuthor = this.postDataAccess
-        .findAuthorByUsername(author.getUsername())
-        .await()
-        .atMost(TIMEOUT);
+  public Uni<Long> persistOrUpdateAuthors(final List<Author> authors) {
+    final var latestAuthors = new LinkedHashMap<String, Author>();
+    authors.stream()
+        .map(PostService::normalizeAuthor)
+        .forEach(author -> latestAuthors.put(author.getUsername(), author));
 
-    final Uni<Optional<Author>> result = foundAuthor.isPresent() ?
-        this.postDataAccess.merge(copyTo(author, foundAuthor.get())) :
-        this.postDataAccess.persist(author).map(Optional::ofNullable);
-
-    return result.await().atMost(TIMEOUT);
+    return latestAuthors.isEmpty()
+        ? Uni.createFrom().item(0L)
+        : this.postDataAccess.upsert(new ArrayList<>(latestAuthors.values()))
+            .invoke(() -> this.invalidateAuthors(latestAuthors.keySet()));
   }
 
-
   /**
    * Verify if given author, by its username, exists and is active at the moment
    *
@@ -123,28 +123,112 @@ public class PostService {
    */
   protected Uni<Boolean> isAuthorActive(String username) {
     return nonBlank(username)
-        .map(value -> this.postDataAccess.isAuthorActive(username))
+        .map(value -> this.postDataAccess.isAuthorActive(normalizeUserName(value)))
         .orElseGet(() -> Uni.createFrom()
             .item(false));
   }
 
   /**
-   * Permanently stores a new {@link Post} into the data repository. Data validations won't be done
-   * at this service layer, and should be done by its caller.
+   * Permanently stores a new {@link Post} into the data repository. The post's author will be
+   * normalized, and verified, without blocking, as part of this pipeline. Any other data validation
+   * won't be done at this service layer, and should be done by its caller.
    * <p>
-   * If successfully persisted, a notification will be broadcast to a message broker to notify that
-   * a new post has being introduced
+   * A notification, to be broadcast to a message broker, notifying that a new post has being
+   * introduced is stored along with the post, and will be relayed by the {@link OutboxRelay}
    *
    * @param post          A post data to be persisted
    * @param correlationId Transit id of the original request that made this insert necessary
    * @return An {@link Uni} that will be resolved into the persisted Post, including its newly
-   * generated id
+   * generated id. The {@code Uni} will fail with an {@link InactiveAuthorException} if the author
+   * doesn't exist or is inactive.
    */
   public Uni<Post> insertPost(final Post post, final String correlationId) {
     final var normalizedPost = post.toToday();
     normalizedPost.enableIt();
-    return this.postDataAccess.persist(normalizedPost)
-        .invoke(pPost -> this.broadcastPersist(pPost, correlationId));
+    normalizedPost.setVersion(0L);
+    nonBlank(post.getAuthor()).map(PostService::normalizeUserName)
+        .ifPresent(normalizedPost::setAuthor);
+    return this.isAuthorActive(normalizedPost.getAuthor())
+        .chain(isActive -> {
+          if (!isActive) {
+            return Uni.createFrom().<Post>failure(
+                new InactiveAuthorException(normalizedPost.getAuthor()));
+          }
+          normalizedPost.setAuthorActive(true);
+          return this.postDataAccess.persist(normalizedPost,
+              eventOf(Action.CREATED, correlationId)).invoke(this::cachePersisted);
+        });
+  }
+
+  /**
+   * Permanently stores a batch of new {@link Post} into the data repository. All distinct authors
+   * of the batch are verified at once, and the posts of existent and active authors are persisted
+   * with a single round trip to the repository, and either all of them are persisted or none of
+   * them is. If the repository fails to write any of them, all of them are reported as failed. Any
+   * other data validation won't be done at this service layer, and should be done by its caller.
+   * <p>
+   * Notifications for every persisted post are stored along with the posts, and will be relayed to
+   * a message broker by the {@link OutboxRelay}
+   *
+   * @param posts         posts to be persisted
+   * @param correlationId Transit id of the original request that made this insert necessary
+   * @return An {@link Uni} that will be resolved into the outcome of each post, in the same order
+   * the posts were given
+   */
+  public Uni<List<PostBatchResult>> insertPosts(final List<Post> posts,
+      final String correlationId) {
+    final var authors = posts.stream()
+        .map(Post::getAuthor)
+        .map(PostService::nonBlank)
+        .flatMap(Optional::stream)
+        .map(PostService::normalizeUserName)
+        .collect(Collectors.toSet());
+
+    final var activeAuthors = authors.isEmpty()
+        ? Uni.createFrom().item(Collections.<String>emptySet())
+        : this.postDataAccess.findActiveAuthors(authors);
+
+    return activeAuthors.chain(active -> {
+      final List<PostBatchResult> results =
+          new ArrayList<>(Collections.nCopies(posts.size(), null));
+      final List<Post> normalizedPosts = new ArrayList<>();
+      final List<Integer> positions = new ArrayList<>();
+
+      for (var index = 0; index < posts.size(); index++) {
+        final var post = posts.get(index);
+        final var author = nonBlank(post.getAuthor()).map(PostService::normalizeUserName);
+        if (author.isPresent() && active.contains(author.get())) {
+          final var normalizedPost = post.toToday();
+          normalizedPost.enableIt();
+          normalizedPost.setVersion(0L);
+          normalizedPost.setAuthor(author.get());
+          normalizedPost.setAuthorActive(true);
+          normalizedPosts.add(normalizedPost);
+          positions.add(index);
+        } else {
+          results.set(index, PostBatchResult.rejected(
+              new InactiveAuthorException(post.getAuthor()).getMessage()));
+        }
+      }
+
+      if (normalizedPosts.isEmpty()) {
+        return Uni.createFrom().item(results);
+      }
+
+      return this.postDataAccess.persist(normalizedPosts, eventOf(Action.CREATED, correlationId))
+          .map(persisted -> {
+            persisted.forEach(this::cachePersisted);
+            final var isPersisted = !persisted.isEmpty();
+
+            for (var index = 0; index < normalizedPosts.size(); index++) {
+              final var post = normalizedPosts.get(index);
+              results.set(positions.get(index), isPersisted
+                  ? PostBatchResult.created(post.getId())
+                  : PostBatchResult.failed("batch could not be persisted"));
+            }
+            return results;
+          });
+    });
   }
 
 
@@ -153,70 +237,231 @@ public class PostService {
    * enable/disable it.
    *
    * <p>
-   * If successfully persisted, a notification will be broadcast to a message broker, notifying that
+   * If successfully persisted, a notification will be relayed to a message broker, notifying that
    * given post has being updated
    *
-   * <p>
-   * Due to a panache limitations, regarding transactions for mongodb, which is still experimental,
-   * and it doesn't support reactive repositories, this method must be a blocking operation. Refer
-   * to <a href="https://quarkus.io/guides/mongodb-panache#reactive">Quarkus Reactive Entities and
-   * Repositories Guide-</a> for more details
-   *
    * @param updatedPost   post to be updated
    * @param correlationId Transit id of the original request that made this update necessary
-   * @return A {@link Optional<Post>} that with the updated post. If post is not found a {@code
-   * Optional.empty()} will be returned otherwise.
-   */
-  @Transactional(TxType.REQUIRED)
-  public Optional<Post> updatePost(final Post updatedPost, final String correlationId) {
-    final var foundPost = this.postDataAccess.
-        findById(updatedPost.getId())
-        .await()
-        .atMost(TIMEOUT);
-
-    Optional<Post> result = Optional.empty();
-
-    if (foundPost.isPresent()) {
-      Post postToUpdate = foundPost.get();
-      postToUpdate.setEnabled(updatedPost.isEnabled());
-      postToUpdate.setMessage(updatedPost.getMessage());
-      result = this.postDataAccess.merge(postToUpdate)
-          .invoke(p -> p.ifPresent(post -> this.broadcastUpdate(post, correlationId)))
-          .await()
-          .atMost(TIMEOUT);
-    }
-    return result;
+   * @return an {@link Uni} which will resolve into an {@link Optional<Post>} with the updated post.
+   * If post is not found a {@code Optional.empty()} will be returned otherwise.
+   */
+  public Uni<Optional<Post>> updatePost(final Post updatedPost, final String correlationId) {
+    final var patch = new PostPatch(updatedPost.getMessage(), updatedPost.isEnabled());
+    return this.updatePost(updatedPost.getId(), patch, null, correlationId);
+  }
+
+  /**
+   * Partially update the stored data of a {@link Post}, with a single round trip to the repository.
+   * Only the non-null properties of the patch will be applied, and the post's version will be
+   * incremented.
+   * <p>
+   * If an expected version is given, the post will only be updated if it is still at this version.
+   * <p>
+   * If, and only if, the post is updated a notification, notifying that given post has being
+   * updated, is stored within the same transaction, to be relayed to a message broker by the
+   * {@link OutboxRelay}
+   *
+   * @param postId          unique object identifier of the post
+   * @param patch           changes to be applied
+   * @param expectedVersion version the post is expected to be at, or {@code null} to update the
+   *                        post regardless of its version
+   * @param correlationId   Transit id of the original request that made this update necessary
+   * @return an {@link Uni} which will resolve into an {@link Optional<Post>} with the updated post,
+   * or {@code Optional.empty()} if the post was not found. The {@code Uni} will fail with a {@link
+   * PostVersionConflictException} if the post is no longer at the expected version.
+   */
+  public Uni<Optional<Post>> updatePost(final ObjectId postId, final PostPatch patch,
+      final Long expectedVersion, final String correlationId) {
+    return this.postDataAccess
+        .update(postId, patch, expectedVersion, eventOf(Action.UPDATED, correlationId))
+        .invoke(updated -> updated.ifPresentOrElse(this::cachePersisted,
+            () -> this.postCache.invalidate(postId)))
+        .chain(updated -> updated.isEmpty() && expectedVersion != null
+            ? this.failIfExists(postId, expectedVersion)
+            : Uni.createFrom().item(updated));
+  }
+
+  private Uni<Optional<Post>> failIfExists(final ObjectId postId, final long expectedVersion) {
+    return this.postDataAccess.existsById(postId).map(exists -> {
+      if (exists) {
+        throw new PostVersionConflictException(postId, expectedVersion);
+      }
+      return Optional.<Post>empty();
+    });
   }
 
   /**
    * Retrieves a post by its unique object identifier. This will return results even when the author
    * is disabled
    * <p>
-   * This method ignores the current author state.
+   * This method ignores the current author state. Cached posts are served from the {@link
+   * PostCache}, and posts fetched from the data repository are cached.
    *
    * @param id unique object identifier
    * @return an {@link Uni} which will resolve into an {@link Optional<Post>}. {@code
    * Optional.empty()} represents that no post was found
    */
   public Uni<Optional<Post>> retrievePostById(String id) {
-    return this.postDataAccess.findById(id);
+    final var cached = this.postCache.getIfPresent(new ObjectId(id));
+    if (cached.isPresent()) {
+      return Uni.createFrom().item(cached);
+    }
+
+    return this.postDataAccess.findById(id)
+        .invoke(found -> found.ifPresent(this.postCache::put));
   }
 
 
+  /**
+   * Retrieves the current revision of a post, its version and the status of its author, which is
+   * enough to verify if a client already has the current post. Cached posts are served from the
+   * {@link PostCache}, otherwise only the revision is fetched from the data repository, instead of
+   * the whole post.
+   *
+   * @param id unique object identifier
+   * @return an {@link Uni} which will resolve into the post, which might have only its id, version
+   * and author status set. {@code Optional.empty()} represents that no post was found
+   */
+  public Uni<Optional<Post>> retrievePostRevision(final String id) {
+    final var objectId = new ObjectId(id);
+    final var cached = this.postCache.getIfPresent(objectId);
+    if (cached.isPresent()) {
+      return Uni.createFrom().item(cached);
+    }
+
+    return this.postDataAccess.findRevisionById(objectId);
+  }
+
   /**
    * Retrieves a list of posts by a given list of unique object identifier. This will return results
    * even when the author is disabled. If no posts are found an empty collection will return. The
    * same result will be returned if given list of ids are empty.
    * <p>
-   * This method ignores the current author state.
+   * This method ignores the current author state. Cached posts are served from the {@link
+   * PostCache}, and only the missing ones are fetched from the data repository. Posts are returned
+   * in the order of their first occurrence in given list.
    *
    * @param ids list of posts' unique object identifiers
    * @return an {@link Uni} which will resolve into an {@link List<Post>}.
    */
   public Uni<List<Post>> retrievePostByIds(final List<String> ids) {
+    return this.retrievePostByIds(ids, Optional.empty());
+  }
+
+  /**
+   * Retrieves a list of posts by a given list of unique object identifier, reading only a subset of
+   * their properties from the data repository. Found posts might have only the projected properties
+   * set, and callers must not rely on any other property.
+   * <p>
+   * Cached posts are still served from the {@link PostCache}, but posts fetched with a projection
+   * are partial, and therefore are not cached. Malformed ids are skipped, as ids of posts that
+   * don't exist are.
+   *
+   * @param ids        list of posts' unique object identifiers
+   * @param projection properties to be read, or {@code Optional.empty()} to read whole posts
+   * @return an {@link Uni} which will resolve into an {@link List<Post>}.
+   */
+  public Uni<List<Post>> retrievePostByIds(final List<String> ids,
+      final Optional<PostProjection> projection) {
+    return this.lookupPosts(ids, projection).map(PostLookup::getItems);
+  }
+
+  /**
+   * Look up posts by a given list of unique object identifiers, reporting the requested ids that
+   * could not be served instead of failing the whole lookup. Duplicated ids are looked up once, and
+   * found posts are returned in the order of their first occurrence in given list.
+   * <p>
+   * Cached posts are served from the {@link PostCache}, and the missing ones are fetched from the
+   * data repository in chunks, as configured by {@code post.search.ids.*}. As in {@link
+   * #retrievePostByIds(List, Optional)}, posts fetched with a projection are not cached.
+   *
+   * @param ids        list of posts' unique object identifiers, which might be malformed
+   * @param projection properties to be read, or {@code Optional.empty()} to read whole posts
+   * @return an {@link Uni} which will resolve into the found posts, along with the ids that are
+   * malformed or don't belong to any post
+   */
+  public Uni<PostLookup> lookupPosts(final List<String> ids,
+      final Optional<PostProjection> projection) {
+    final Set<ObjectId> uniqueIds = new LinkedHashSet<>();
+    final Set<String> invalidIds = new LinkedHashSet<>();
+    ids.stream().map(String::trim).forEach(id -> {
+      if (ObjectId.isValid(id)) {
+        uniqueIds.add(new ObjectId(id));
+      } else {
+        invalidIds.add(id);
+      }
+    });
+
+    final var objectIds = List.copyOf(uniqueIds);
+    final var found = this.postCache.getAllPresent(objectIds);
+    final var missingIds = objectIds.stream()
+        .filter(id -> !found.containsKey(id))
+        .map(ObjectId::toHexString)
+        .collect(Collectors.toList());
+
+    if (missingIds.isEmpty()) {
+      return Uni.createFrom().item(lookupOf(objectIds, found, invalidIds));
+    }
+
+    final var fetched = projection
+        .map(value -> this.postDataAccess.findByIds(missingIds, value))
+        .orElseGet(() -> this.postDataAccess.findByIds(missingIds)
+            .invoke(posts -> posts.forEach(this.postCache::put)));
+
+    return fetched.map(posts -> {
+      posts.forEach(post -> found.put(post.getId(), post));
+      return lookupOf(objectIds, found, invalidIds);
+    });
+  }
+
+  private static PostLookup lookupOf(final List<ObjectId> ids, final Map<ObjectId, Post> posts,
+      final Set<String> invalidIds) {
+    final var missing = ids.stream()
+        .filter(id -> !posts.containsKey(id))
+        .map(ObjectId::toHexString)
+        .collect(Collectors.toList());
+    return PostLookup.of(inOrderOf(ids, posts), missing, List.copyOf(invalidIds));
+  }
+
+  private static List<Post> inOrderOf(final List<ObjectId> ids, final Map<ObjectId, Post> posts) {
+    return ids.stream()
+        .map(posts::get)
+        .filter(Objects::nonNull)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Streams posts by a given list of unique object identifier, as they are fetched from the data
+   * repository. This will emit posts even when the author is disabled. If given list of ids is
+   * empty, no post will be emitted.
+   * <p>
+   * This method ignores the current author state.
+   *
+   * @param ids list of posts' unique object identifiers
+   * @return a {@link Multi} which will emit each found {@link Post}
+   */
+  public Multi<Post> streamPostByIds(final List<String> ids) {
     return ids.isEmpty()
-        ? Uni.createFrom().item(Collections.emptyList())
-        : this.postDataAccess.findByIds(ids);
+        ? Multi.createFrom().empty()
+        : this.postDataAccess.streamByIds(ids);
+  }
+
+  /**
+   * Count the posts of an author at a given status, as a {@link PaginatedSearch} by author would
+   * find them. The count is read from the author's materialized counters, instead of counting the
+   * author's posts. Posts of inexistent or inactive authors are never found by searches, so they
+   * are counted as zero.
+   *
+   * @param username   username of the author
+   * @param postStatus name of a post status, {@code enabled}, {@code disabled} or {@code all}
+   * @return an {@link Uni} which will resolve into the number of posts
+   * @throws InvalidSearchException if given status is invalid
+   */
+  public Uni<Long> countPosts(final String username, final String postStatus) {
+    return this.isAuthorActive(username).chain(isActive -> isActive
+        ? this.postDataAccess.findPostCounter(normalizeUserName(username))
+            .map(counter -> counter.countOf(postStatus))
+        : Uni.createFrom().item(0L));
   }
 
   /**
@@ -228,17 +473,26 @@ public class PostService {
     return this.postDataAccess.searchPosts();
   }
 
-  private void broadcastPersist(final Post post, final String correlationId) {
-    this.broadcastChanges(post, correlationId, Action.CREATED);
+  /**
+   * Cache a persisted post, and invalidate the cached timeline of its author, which no longer
+   * reflects the post
+   */
+  private void cachePersisted(final Post post) {
+    this.postCache.put(post);
+    nonBlank(post.getAuthor()).ifPresent(author -> this.timelineCache.invalidate(Set.of(author)));
   }
 
-  private void broadcastUpdate(final Post post, final String correlationId) {
-    this.broadcastChanges(post, correlationId, Action.UPDATED);
+  /**
+   * Invalidate every cached post and timeline of given authors, whose changes are copied into
+   * their posts
+   */
+  private void invalidateAuthors(final Set<String> usernames) {
+    this.postCache.invalidateAuthors(usernames);
+    this.timelineCache.invalidate(usernames);
   }
 
-  private void broadcastChanges(final Post post, final String correlationId, final Action action) {
-    final var postDto = postMapper.toDTO(post);
-    postDto.setAction(action);
-    emitter.emit(correlationId, postDto);
+  private static Function<Post, OutboxEvent> eventOf(final Action action,
+      final String correlationId) {
+    return post -> OutboxEvent.of(post, action.name(), correlationId);
   }
 }
@@ -0,0 +1,16 @@
+package com.artspace.post;
+
+import org.bson.types.ObjectId;
+
+/**
+ * {@code PostVersionConflictException} is thrown when a post is updated based on a version that
+ * is no longer its current version, meaning the post was modified by someone else in the meantime.
+ *
+ * <p>{@code PostVersionConflictException} is an <em>unchecked exception</em>.
+ */
+public class PostVersionConflictException extends RuntimeException {
+
+  public PostVersionConflictException(final ObjectId postId, final long expectedVersion) {
+    super("Post " + postId + " is no longer at version " + expectedVersion);
+  }
+}
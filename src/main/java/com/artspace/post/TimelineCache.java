@@ -0,0 +1,318 @@
+package com.artspace.post;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.ws.rs.core.EntityTag;
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Cache of the first pages of author timelines, stored as already serialized JSON, so hot
+ * timelines are served without querying the repository and without serializing their posts again.
+ * Pages are keyed by author, post status, page index and page size. Searches resumed from a cursor
+ * are never cached.
+ * <p>
+ * Page bytes are kept off-heap, in direct buffers, so the cache doesn't add to the heap the garbage
+ * collector has to walk. The cache is bounded by the total size of its pages, evicting the least
+ * recently used pages first. Direct buffers are released once their evicted pages are collected,
+ * so {@code -XX:MaxDirectMemorySize} must leave room above the configured size.
+ * <p>
+ * Pages are keyed by the normalized username of their author, so queries by differently cased
+ * usernames share their pages, and are invalidated along with them.
+ * <p>
+ * All pages of an author are invalidated whenever a post of the author is inserted or updated, or
+ * when the author changes. Invalidations are local to each instance, while posts and authors are
+ * changed through any of them, so pages also expire after a configurable amount of time, bounding
+ * how long an instance serves a page that was invalidated elsewhere.
+ * <p>
+ * A page computed while its author was being invalidated is not stored, which is tracked by a
+ * generation counter, read before the page is queried and checked before it is stored. Generations
+ * are striped by author, so an invalidation might also prevent a few pages of unrelated authors
+ * from being stored, but never the other way around.
+ * <p>
+ * The following metrics are exported:
+ * <ul>
+ *   <li>{@code post_timeline_cache_gets}: lookups, tagged by their result, {@code hit} or
+ *   {@code miss}</li>
+ *   <li>{@code post_timeline_cache_evictions}: pages evicted to honor the size bound</li>
+ *   <li>{@code post_timeline_cache_bytes}: total size of the cached pages</li>
+ *   <li>{@code post_timeline_cache_entries}: number of cached pages</li>
+ * </ul>
+ * <p>
+ * Configurations for this cache are under the prefix {@code post.cache.timeline.*}.
+ */
+@ApplicationScoped
+class TimelineCache {
+
+  private static final int GENERATION_STRIPES = 1024;
+
+  @ConfigProperty(name = "post.cache.timeline.enabled", defaultValue = "true")
+  boolean isEnabled;
+
+  @ConfigProperty(name = "post.cache.timeline.max-bytes", defaultValue = "67108864")
+  long maximumBytes;
+
+  @ConfigProperty(name = "post.cache.timeline.max-page", defaultValue = "3")
+  int maximumPage;
+
+  @ConfigProperty(name = "post.cache.timeline.expire-after-write", defaultValue = "PT30S")
+  Duration expireAfterWrite;
+
+  @Inject
+  MeterRegistry registry;
+
+  final Object lock = new Object();
+
+  final LinkedHashMap<PageKey, CachedPage> pages = new LinkedHashMap<>(16, 0.75f, true);
+
+  final Map<String, Set<PageKey>> pagesByAuthor = new HashMap<>();
+
+  final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+  long usedBytes;
+
+  Counter hits;
+
+  Counter misses;
+
+  Counter evictions;
+
+  @PostConstruct
+  void init() {
+    this.hits = Counter.builder("post_timeline_cache_gets")
+        .description("Lookups of author timeline pages")
+        .tag("result", "hit")
+        .register(registry);
+    this.misses = Counter.builder("post_timeline_cache_gets")
+        .description("Lookups of author timeline pages")
+        .tag("result", "miss")
+        .register(registry);
+    this.evictions = Counter.builder("post_timeline_cache_evictions")
+        .description("Author timeline pages evicted to honor the cache size bound")
+        .register(registry);
+    Gauge.builder("post_timeline_cache_bytes", this, TimelineCache::usedBytes)
+        .description("Total size of the cached author timeline pages")
+        .baseUnit("bytes")
+        .register(registry);
+    Gauge.builder("post_timeline_cache_entries", this, TimelineCache::size)
+        .description("Number of cached author timeline pages")
+        .register(registry);
+  }
+
+  /**
+   * Verify if the page of a timeline query can be cached. Only author queries, for one of the
+   * first pages and not resumed from a cursor, are cached.
+   *
+   * @param author    username of the author filter
+   * @param pageIndex requested page
+   * @param cursor    requested cursor, if any
+   * @return {@code true} if the page can be cached
+   */
+  boolean isCacheable(final String author, final int pageIndex, final String cursor) {
+    return isEnabled
+        && author != null && !author.isBlank()
+        && (cursor == null || cursor.isBlank())
+        && pageIndex < maximumPage;
+  }
+
+  /**
+   * Read the current generation of an author, which must be handed back when storing a page of
+   * the author
+   *
+   * @param author username of the author
+   * @return the author's generation
+   */
+  long generationOf(final String author) {
+    return generations.get(stripeOf(normalizeAuthor(author)));
+  }
+
+  /**
+   * Retrieves a cached page
+   *
+   * @return a copy of the cached page, or {@code Optional.empty()} if it is not cached
+   */
+  Optional<TimelinePage> get(final String author, final String status, final int pageIndex,
+      final int pageSize) {
+    final var key = new PageKey(normalizeAuthor(author), normalize(status), pageIndex, pageSize);
+    CachedPage cached;
+    synchronized (lock) {
+      cached = pages.get(key);
+      if (cached != null && cached.isExpired(expireAfterWrite)) {
+        remove(key);
+        cached = null;
+      }
+    }
+
+    if (cached == null) {
+      misses.increment();
+      return Optional.empty();
+    }
+
+    hits.increment();
+    final var json = new byte[cached.json.remaining()];
+    cached.json.duplicate().get(json);
+    return Optional.of(new TimelinePage(json, cached.nextCursor, cached.entityTag));
+  }
+
+  /**
+   * Stores a page, unless its author was invalidated since given generation was read. Pages larger
+   * than the whole cache will be ignored.
+   *
+   * @param generation the author's generation, read before the page was queried
+   * @param page       serialized page, its entity tag, and the cursor to the following page
+   */
+  void put(final String author, final String status, final int pageIndex, final int pageSize,
+      final long generation, final TimelinePage page) {
+    final var size = page.getJson().length;
+    if (size > maximumBytes) {
+      return;
+    }
+
+    final var json = ByteBuffer.allocateDirect(size).put(page.getJson()).flip().asReadOnlyBuffer();
+    final var normalizedAuthor = normalizeAuthor(author);
+    final var key = new PageKey(normalizedAuthor, normalize(status), pageIndex, pageSize);
+    final var cached = new CachedPage(json, page.nextCursor, page.entityTag, System.nanoTime());
+    synchronized (lock) {
+      if (generationOf(normalizedAuthor) != generation) {
+        return;
+      }
+
+      final var previous = pages.put(key, cached);
+      if (previous != null) {
+        usedBytes -= previous.json.capacity();
+      }
+      usedBytes += size;
+      pagesByAuthor.computeIfAbsent(normalizedAuthor, value -> new HashSet<>()).add(key);
+      evictToSize();
+    }
+  }
+
+  /**
+   * Removes every cached page of given authors, and prevents pages that are still being queried
+   * from being stored
+   *
+   * @param authors normalized usernames of the authors
+   */
+  void invalidate(final Set<String> authors) {
+    synchronized (lock) {
+      authors.stream().map(TimelineCache::normalizeAuthor).forEach(author -> {
+        generations.incrementAndGet(stripeOf(author));
+        Optional.ofNullable(pagesByAuthor.remove(author))
+            .ifPresent(keys -> keys.forEach(key -> usedBytes -= pages.remove(key).json.capacity()));
+      });
+    }
+  }
+
+  long usedBytes() {
+    synchronized (lock) {
+      return usedBytes;
+    }
+  }
+
+  int size() {
+    synchronized (lock) {
+      return pages.size();
+    }
+  }
+
+  private void evictToSize() {
+    final var iterator = pages.entrySet().iterator();
+    while (usedBytes > maximumBytes && iterator.hasNext()) {
+      final var eldest = iterator.next();
+      iterator.remove();
+      usedBytes -= eldest.getValue().json.capacity();
+      unindex(eldest.getKey());
+      evictions.increment();
+    }
+  }
+
+  private void remove(final PageKey key) {
+    usedBytes -= pages.remove(key).json.capacity();
+    unindex(key);
+  }
+
+  private void unindex(final PageKey key) {
+    final var authorPages = pagesByAuthor.get(key.author);
+    authorPages.remove(key);
+    if (authorPages.isEmpty()) {
+      pagesByAuthor.remove(key.author);
+    }
+  }
+
+  private static int stripeOf(final String author) {
+    return Math.floorMod(author.hashCode(), GENERATION_STRIPES);
+  }
+
+  private static String normalizeAuthor(final String author) {
+    return author.toLowerCase().trim();
+  }
+
+  private static String normalize(final String status) {
+    return status == null ? null : status.toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * A serialized timeline page, the entity tag of its posts, and the cursor to the page following
+   * it
+   */
+  @Getter
+  @RequiredArgsConstructor
+  static final class TimelinePage {
+
+    private final byte[] json;
+
+    private final String nextCursor;
+
+    private final EntityTag entityTag;
+
+    Optional<String> getNextCursor() {
+      return Optional.ofNullable(nextCursor);
+    }
+  }
+
+  @EqualsAndHashCode
+  @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+  private static final class PageKey {
+
+    private final String author;
+
+    private final String status;
+
+    private final int pageIndex;
+
+    private final int pageSize;
+  }
+
+  @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+  private static final class CachedPage {
+
+    private final ByteBuffer json;
+
+    private final String nextCursor;
+
+    private final EntityTag entityTag;
+
+    private final long writtenAt;
+
+    boolean isExpired(final Duration expireAfterWrite) {
+      return System.nanoTime() - writtenAt >= expireAfterWrite.toNanos();
+    }
+  }
+}
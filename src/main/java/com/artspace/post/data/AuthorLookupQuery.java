@@ -1,68 +1,93 @@
 package com.artspace.post.data;
 
 import com.artspace.post.Post;
-import io.quarkus.mongodb.reactive.ReactiveMongoClient;
+import io.quarkus.mongodb.FindOptions;
+import io.quarkus.mongodb.reactive.ReactiveMongoCollection;
+import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
 import java.util.List;
 import javax.enterprise.context.ApplicationScoped;
-import javax.inject.Inject;
 import javax.inject.Named;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
 import org.bson.Document;
-import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 /**
- * Query posts by author and post status. Due to {@code Author}  being a separated document at mongo
- * a $lookup aggregation query is required, to join those two documents and apply specified filters
- * and sorting. Posts will automatically be filtered by enabled authors only. Posts from disabled
- * authors will be automatically removed, even when this user is the filter author
+ * Query posts by author and post status. Posts will automatically be filtered by enabled authors
+ * only. Posts from disabled authors will be automatically removed, even when this user is the
+ * filter author
  * <p>
- * For more information on lookup syntax, see <a href="https://docs.mongodb.com/manual/reference/operator/aggregation/lookup/#mongodb-pipeline-pipe.-lookup">
- * the $lookup pipeline doc</a>
+ * The author status is denormalized into each post as {@code authorActive}, so this query is a
+ * plain find, served by the {@code (username, authorActive, enabled, creationTime)} index, instead
+ * of a {@code $lookup} aggregation joining every post to its author.
  * <p>
- * obs: Due to a limitation with quarkus/cdi injection all injected properties won't be final nor
- * private. Injection of config properties were not possible via a constructor. Therefore, injection
- * will be done via property injection, instead of constructor injection.
+ * Searches projected to ids alone are covered by the same index.
+ * <p>
+ * Results are sorted from the newest to the oldest post. Searches resumed from a {@link PageCursor}
+ * will use a range predicate on the post's creation time, instead of skipping to the requested
+ * page.
  */
 @Named("author.query")
 @ApplicationScoped
+@RequiredArgsConstructor(access = AccessLevel.PROTECTED)
 public class AuthorLookupQuery implements PostQuery {
 
-  private static final String LOOKUP_JOIN_AS = "postAuthor";
-
-  @Inject
-  ReactiveMongoClient mongoClient;
+  final PostRepository postRepository;
 
-  @ConfigProperty(name = "quarkus.mongodb.database")
-  String database;
+  final ReadPreferences readPreferences;
 
+  @Override
   public Uni<List<Post>> invoke(final PaginatedSearch paginatedSearch) {
+    final var options = new FindOptions()
+        .sort(sortOf(paginatedSearch))
+        .skip(pageOf(paginatedSearch) * paginatedSearch.getSize())
+        .limit(paginatedSearch.getSize());
+    paginatedSearch.getProjection()
+        .ifPresent(projection -> options.projection(projection.toDocument()));
+
+    return collection().find(filterOf(paginatedSearch), options).collect().asList();
+  }
+
+  @Override
+  public Multi<Post> stream(final PaginatedSearch paginatedSearch, final int batchSize) {
+    final var options = new FindOptions()
+        .sort(sortOf(paginatedSearch))
+        .skip(pageOf(paginatedSearch) * paginatedSearch.getSize())
+        .limit(paginatedSearch.getSize())
+        .batchSize(batchSize);
+    paginatedSearch.getProjection()
+        .ifPresent(projection -> options.projection(projection.toDocument()));
+
+    return collection().find(filterOf(paginatedSearch), options);
+  }
+
+  private ReactiveMongoCollection<Post> collection() {
+    return postRepository.mongoCollection().withReadPreference(readPreferences.getAuthorQuery());
+  }
+
+  static Document filterOf(final PaginatedSearch paginatedSearch) {
     final var author = paginatedSearch.getAuthorFilter()
         .orElseThrow(
             () -> new IllegalArgumentException("Author filter must be set for Lookup Search"));
 
-    final var lookup = new Document("$lookup",
-        new Document("from", "author")
-            .append("localField", "username")
-            .append("foreignField", "username")
-            .append("as", LOOKUP_JOIN_AS));
-
-    final var matchParameters = new Document(LOOKUP_JOIN_AS + ".active", true)
-        .append(LOOKUP_JOIN_AS + ".username", author);
+    final var query = new Document("username", author)
+        .append("authorActive", true);
 
     paginatedSearch.getPostStatusFilter()
-        .ifPresent(value -> matchParameters.append("enabled", value));
+        .ifPresent(value -> query.append("enabled", value));
 
-    final var match = new Document("$match", matchParameters);
-    final var sort = new Document("$sort", new Document(paginatedSearch.getSortBy(), -1L));
-    final var skip = new Document("$skip", paginatedSearch.skipUntil());
-    final var limit = new Document("$limit", paginatedSearch.limitTo());
+    paginatedSearch.getCursor().ifPresent(value -> query.putAll(value.toFilter(true)));
+    return query;
+  }
 
-    final var pipeline = List.of(lookup, match, sort, skip, limit);
-    final var reactiveCollection = this.mongoClient
-        .getDatabase(this.database)
-        .getCollection("post", Post.class)
-        .aggregate(pipeline);
+  static Document sortOf(final PaginatedSearch paginatedSearch) {
+    final var sortBy = paginatedSearch.getCursor().isPresent()
+        ? PageCursor.SORT_FIELD
+        : paginatedSearch.getSortBy();
+    return PageCursor.toSort(sortBy, true);
+  }
 
-    return reactiveCollection.onItem().transform(post -> post).collect().asList();
+  private static int pageOf(final PaginatedSearch paginatedSearch) {
+    return paginatedSearch.getCursor().isPresent() ? 0 : paginatedSearch.getPage();
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,86 @@
+package com.artspace.post.data;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.Optional;
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Bounded, in-process cache of author statuses, keyed by the normalized username. It is kept
+ * current write-through, whenever an author is persisted or merged by the data layer, which is the
+ * path taken by every identity event applied by the AppUsers consumer.
+ * <p>
+ * Identity events are distributed among the instances of the consumer group, so an instance might
+ * not see every status change. Entries will therefore expire after a configurable amount of time,
+ * bounding how long a stale status can be served.
+ * <p>
+ * Hit, miss and eviction metrics are exported under the {@code post_author_status} cache name.
+ * Configurations for this cache are under the prefix {@code post.cache.author.*}.
+ */
+@ApplicationScoped
+public class AuthorStatusCache {
+
+  private static final String CACHE_NAME = "post_author_status";
+
+  @ConfigProperty(name = "post.cache.author.max-size", defaultValue = "10000")
+  long maximumSize;
+
+  @ConfigProperty(name = "post.cache.author.expire-after-write", defaultValue = "PT5M")
+  Duration expireAfterWrite;
+
+  @Inject
+  MeterRegistry registry;
+
+  Cache<String, Boolean> cache;
+
+  @PostConstruct
+  void init() {
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(expireAfterWrite)
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+  }
+
+  /**
+   * Retrieves the cached status of an author
+   *
+   * @param username username of the author
+   * @return the cached status, or {@code Optional.empty()} if the author is not cached
+   */
+  public Optional<Boolean> getIfPresent(final String username) {
+    return normalize(username).map(cache::getIfPresent);
+  }
+
+  /**
+   * Stores the current status of an author. Blank usernames will be ignored.
+   *
+   * @param username username of the author
+   * @param isActive {@code true} if the author is active
+   */
+  public void put(final String username, final boolean isActive) {
+    normalize(username).ifPresent(key -> cache.put(key, isActive));
+  }
+
+  /**
+   * Removes an author from the cache, forcing its next lookup to reach the repository
+   *
+   * @param username username of the author
+   */
+  public void invalidate(final String username) {
+    normalize(username).ifPresent(cache::invalidate);
+  }
+
+  private static Optional<String> normalize(final String username) {
+    return Optional.ofNullable(username)
+        .map(value -> value.toLowerCase().trim())
+        .filter(value -> !value.isBlank());
+  }
+}
@@ -0,0 +1,102 @@
+package com.artspace.post.data;
+
+import com.artspace.post.Author;
+import com.artspace.post.Post;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateManyModel;
+import com.mongodb.client.model.Updates;
+import io.quarkus.arc.properties.UnlessBuildProperty;
+import io.quarkus.scheduler.Scheduled;
+import io.quarkus.scheduler.Scheduled.ConcurrentExecution;
+import io.smallrye.mutiny.Uni;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Background job that repairs drift between the author status and its denormalized copy in posts,
+ * which might happen if a status fan-out fails midway, or for posts stored before the status was
+ * denormalized.
+ * <p>
+ * Authors are visited in batches, ordered by their identifier. For each batch a single unordered
+ * bulk write is issued, updating only the posts whose copy differs from the author's status.
+ * <p>
+ * Configurations for this job are under the prefix {@code post.reconciliation.author-status.*}.
+ */
+@ApplicationScoped
+@UnlessBuildProperty(name = "post.data.engine", stringValue = "memory", enableIfMissing = true)
+class AuthorStatusReconciliation {
+
+  private static final Duration BATCH_TIMEOUT = Duration.ofSeconds(30);
+
+  @ConfigProperty(name = "post.reconciliation.author-status.enabled", defaultValue = "true")
+  boolean isEnabled;
+
+  @ConfigProperty(name = "post.reconciliation.author-status.batch-size", defaultValue = "500")
+  int batchSize;
+
+  @Inject
+  Logger logger;
+
+  @Inject
+  PostRepository postRepository;
+
+  @Inject
+  AuthorReactiveRepository authorReactiveRepository;
+
+  @Scheduled(
+      every = "{post.reconciliation.author-status.every}",
+      concurrentExecution = ConcurrentExecution.SKIP)
+  void reconcile() {
+    if (!isEnabled) {
+      return;
+    }
+
+    var visitedAuthors = 0L;
+    var repairedPosts = 0L;
+    List<Author> batch = Collections.emptyList();
+    do {
+      final var lastId = batch.isEmpty() ? null : batch.get(batch.size() - 1).getId();
+      batch = this.nextBatch(lastId).await().atMost(BATCH_TIMEOUT);
+      if (!batch.isEmpty()) {
+        repairedPosts += this.repair(batch).await().atMost(BATCH_TIMEOUT);
+        visitedAuthors += batch.size();
+      }
+    } while (batch.size() == batchSize);
+
+    logger.infof("Author status reconciliation visited %s authors and repaired %s posts",
+        visitedAuthors, repairedPosts);
+  }
+
+  private Uni<List<Author>> nextBatch(final ObjectId lastId) {
+    final var query = lastId == null
+        ? new Document()
+        : new Document("_id", new Document("$gt", lastId));
+
+    return this.authorReactiveRepository.find(query, new Document("_id", 1))
+        .page(0, batchSize)
+        .list();
+  }
+
+  private Uni<Long> repair(final List<Author> authors) {
+    final var updates = authors.stream()
+        .map(author -> new UpdateManyModel<Post>(
+            Filters.and(
+                Filters.eq("username", author.getUsername()),
+                Filters.ne("authorActive", author.isActive())),
+            Updates.set("authorActive", author.isActive())))
+        .collect(Collectors.toList());
+
+    return this.postRepository.mongoCollection()
+        .bulkWrite(updates, new BulkWriteOptions().ordered(false))
+        .map(result -> (long) result.getModifiedCount());
+  }
+}
@@ -0,0 +1,542 @@
+package com.artspace.post.data;
+
+import com.artspace.post.Author;
+import com.artspace.post.Post;
+import com.artspace.post.PostPatch;
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.enterprise.context.ApplicationScoped;
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+
+/**
+ * In-memory implementation of a {@link PostDataAccess}, meant to be a local stand-in for MongoDB on
+ * load tests, benchmarks and offline development. Nothing is persisted, and all data is lost once
+ * the application stops.
+ * <p>
+ * Posts are kept by their identifier, along with secondary indexes that mirror the ones declared by
+ * {@link IndexManager}: a timeline of every post, one timeline per author and one per post status,
+ * all ordered by creation time and identifier. Searches walk these indexes, and searches resumed
+ * from a {@link PageCursor} seek straight to the cursor position, keeping the same
+ * {@link PaginatedSearch} semantics as the MongoDB queries.
+ * <p>
+ * Writes are serialized, so a post, its indexes and its outbox event are always changed together.
+ * Reads are lock free, and might observe a write that is still in progress. Stored posts are never
+ * handed out, only copies of them.
+ * <p>
+ * This implementation is enabled at build time, by setting {@code post.data.engine} to
+ * {@code memory}.
+ */
+@ApplicationScoped
+@IfBuildProperty(name = "post.data.engine", stringValue = "memory")
+@RequiredArgsConstructor
+class InMemoryDataAccess implements PostDataAccess {
+
+  private static final Map<String, Comparator<Post>> SORT_KEYS = Map.of(
+      "_id", Comparator.comparing(Post::getId),
+      "message", Comparator.comparing(Post::getMessage,
+          Comparator.nullsFirst(Comparator.naturalOrder())),
+      "username", Comparator.comparing(Post::getAuthor,
+          Comparator.nullsFirst(Comparator.naturalOrder())),
+      "enabled", Comparator.comparing(Post::isEnabled),
+      "version", Comparator.comparingLong(Post::getVersion));
+
+  final PostSearchFactory postSearchFactory;
+
+  private final Object writeLock = new Object();
+
+  private final Map<ObjectId, Post> posts = new ConcurrentHashMap<>();
+
+  private final NavigableSet<TimelineKey> timeline = new ConcurrentSkipListSet<>();
+
+  private final Map<String, NavigableSet<TimelineKey>> timelineByAuthor =
+      new ConcurrentHashMap<>();
+
+  private final Map<Boolean, NavigableSet<TimelineKey>> timelineByStatus = Map.of(
+      Boolean.TRUE, new ConcurrentSkipListSet<>(),
+      Boolean.FALSE, new ConcurrentSkipListSet<>());
+
+  private final Map<String, Author> authors = new ConcurrentHashMap<>();
+
+  private final Map<String, PostCounter> counters = new ConcurrentHashMap<>();
+
+  private final NavigableMap<ObjectId, OutboxEvent> pendingEvents = new ConcurrentSkipListMap<>();
+
+  @Override
+  public Uni<Author> persist(final Author author) {
+    return Uni.createFrom().item(() -> {
+      synchronized (writeLock) {
+        if (author.getId() == null) {
+          author.setId(new ObjectId());
+        }
+        this.authors.put(author.getUsername(), copyOf(author));
+        this.fanOutStatus(author);
+        return author;
+      }
+    });
+  }
+
+  @Override
+  public Uni<Post> persist(final Post post, final Function<Post, OutboxEvent> eventOf) {
+    return Uni.createFrom().item(() -> {
+      synchronized (writeLock) {
+        if (post.getId() == null) {
+          post.setId(new ObjectId());
+        }
+        if (this.posts.containsKey(post.getId())) {
+          throw new IllegalStateException("A post with id " + post.getId() + " already exists");
+        }
+        this.index(post);
+        this.append(eventOf.apply(post));
+        return post;
+      }
+    });
+  }
+
+  @Override
+  public Uni<List<Post>> persist(final List<Post> posts,
+      final Function<Post, OutboxEvent> eventOf) {
+    return Uni.createFrom().item(() -> {
+      synchronized (writeLock) {
+        posts.stream()
+            .filter(post -> post.getId() == null)
+            .forEach(post -> post.setId(new ObjectId()));
+
+        final var ids = posts.stream().map(Post::getId).collect(Collectors.toSet());
+        if (ids.size() < posts.size() || ids.stream().anyMatch(this.posts::containsKey)) {
+          return Collections.<Post>emptyList();
+        }
+
+        posts.forEach(post -> {
+          this.index(post);
+          this.append(eventOf.apply(post));
+        });
+        return posts;
+      }
+    });
+  }
+
+  @Override
+  public Uni<Optional<Author>> merge(final Author author) {
+    return Uni.createFrom().item(() -> {
+      synchronized (writeLock) {
+        final var merged = this.authors.computeIfPresent(author.getUsername(),
+            (username, stored) -> {
+              final var updated = copyOf(stored);
+              updated.setActive(author.isActive());
+              return updated;
+            });
+        if (merged == null) {
+          return Optional.<Author>empty();
+        }
+
+        this.fanOutStatus(author);
+        return Optional.of(author);
+      }
+    });
+  }
+
+  @Override
+  public Uni<Optional<Post>> update(final ObjectId id, final PostPatch patch,
+      final Long expectedVersion, final Function<Post, OutboxEvent> eventOf) {
+    return Uni.createFrom().item(() -> {
+      synchronized (writeLock) {
+        final var stored = this.posts.get(id);
+        if (stored == null
+            || (expectedVersion != null && stored.getVersion() != expectedVersion)) {
+          return Optional.<Post>empty();
+        }
+
+        final var updated = copyOf(stored);
+        Optional.ofNullable(patch.getMessage()).ifPresent(updated::setMessage);
+        Optional.ofNullable(patch.getEnabled()).ifPresent(updated::setEnabled);
+        updated.setVersion(stored.getVersion() + 1);
+
+        this.index(updated);
+        this.append(eventOf.apply(copyOf(updated)));
+        return Optional.of(copyOf(updated));
+      }
+    });
+  }
+
+  @Override
+  public Uni<Long> upsert(final List<Author> authors) {
+    return Uni.createFrom().item(() -> {
+      synchronized (writeLock) {
+        authors.stream()
+            .map(this::upsertAuthor)
+            .forEach(this::fanOutStatus);
+        return (long) authors.size();
+      }
+    });
+  }
+
+  @Override
+  public Uni<Boolean> isAuthorActive(final String username) {
+    return Uni.createFrom().item(() -> Optional.ofNullable(this.authors.get(username))
+        .map(Author::isActive)
+        .orElse(false));
+  }
+
+  @Override
+  public Uni<Set<String>> findActiveAuthors(final Set<String> usernames) {
+    return Uni.createFrom().item(() -> {
+      final Set<String> activeAuthors = new HashSet<>();
+      usernames.stream()
+          .map(this.authors::get)
+          .filter(Objects::nonNull)
+          .filter(Author::isActive)
+          .map(Author::getUsername)
+          .forEach(activeAuthors::add);
+      return activeAuthors;
+    });
+  }
+
+  @Override
+  public Uni<Optional<Post>> findById(final String id) {
+    return this.findById(new ObjectId(id));
+  }
+
+  @Override
+  public Uni<Optional<Post>> findById(final ObjectId id) {
+    return Uni.createFrom().item(() -> Optional.ofNullable(this.posts.get(id))
+        .map(InMemoryDataAccess::copyOf));
+  }
+
+  @Override
+  public Uni<Boolean> existsById(final ObjectId id) {
+    return Uni.createFrom().item(() -> this.posts.containsKey(id));
+  }
+
+  @Override
+  public Uni<List<Post>> findByIds(final List<String> ids) {
+    final var objectIds = ids.stream().map(ObjectId::new).collect(Collectors.toList());
+    return Uni.createFrom().item(() -> this.lookup(objectIds).collect(Collectors.toList()));
+  }
+
+  /**
+   * Posts are already in memory, so whole posts are found, regardless of the projection
+   */
+  @Override
+  public Uni<List<Post>> findByIds(final List<String> ids, final PostProjection projection) {
+    return this.findByIds(ids);
+  }
+
+  @Override
+  public Uni<Optional<Post>> findRevisionById(final ObjectId id) {
+    return Uni.createFrom().item(() -> Optional.ofNullable(this.posts.get(id)).map(stored -> {
+      final var revision = new Post();
+      revision.setId(id);
+      revision.setVersion(stored.getVersion());
+      revision.setAuthorActive(stored.isAuthorActive());
+      return revision;
+    }));
+  }
+
+  @Override
+  public Multi<Post> streamByIds(final List<String> ids) {
+    final var objectIds = ids.stream()
+        .map(String::trim)
+        .filter(ObjectId::isValid)
+        .map(ObjectId::new)
+        .collect(Collectors.toList());
+    return Multi.createFrom().items(() -> this.lookup(objectIds));
+  }
+
+  @Override
+  public Uni<Optional<Author>> findAuthorByUsername(final String username) {
+    return Uni.createFrom().item(() -> Optional.ofNullable(this.authors.get(username))
+        .map(InMemoryDataAccess::copyOf));
+  }
+
+  @Override
+  public Uni<PostCounter> findPostCounter(final String username) {
+    return Uni.createFrom().item(() -> Optional.ofNullable(this.counters.get(username))
+        .map(InMemoryDataAccess::copyOf)
+        .orElseGet(() -> PostCounter.empty(username)));
+  }
+
+  @Override
+  public Uni<List<OutboxEvent>> claimPendingEvents(final int limit, final Duration lease) {
+    return Uni.createFrom().item(() -> {
+      synchronized (writeLock) {
+        final var now = Instant.now();
+        final var claim = new ObjectId().toHexString();
+        final var claimed = this.pendingEvents.values().stream()
+            .filter(event -> event.getLeaseUntil() == null || event.getLeaseUntil().isBefore(now))
+            .limit(limit)
+            .collect(Collectors.toList());
+        claimed.forEach(event -> {
+          event.setClaimedBy(claim);
+          event.setLeaseUntil(now.plus(lease));
+        });
+        return claimed;
+      }
+    });
+  }
+
+  /**
+   * Sent events are dropped right away, as there is no one to audit them after the application
+   * stops
+   */
+  @Override
+  public Uni<Long> markAsSent(final List<ObjectId> eventIds) {
+    return Uni.createFrom().item(() -> eventIds.stream()
+        .map(this.pendingEvents::remove)
+        .filter(Objects::nonNull)
+        .count());
+  }
+
+  @Override
+  public Uni<Long> countPendingEvents() {
+    return Uni.createFrom().item(() -> (long) this.pendingEvents.size());
+  }
+
+  @Override
+  public Uni<Optional<Instant>> findOldestPendingEvent() {
+    return Uni.createFrom().item(() -> Optional.ofNullable(this.pendingEvents.firstEntry())
+        .map(entry -> entry.getValue().getCreatedAt()));
+  }
+
+  @Override
+  public PaginatedSearch searchPosts() {
+    return this.postSearchFactory.getNewInstance(
+        (PaginatedSearch ps) -> Uni.createFrom()
+            .item(() -> this.search(ps).collect(Collectors.toList())),
+        (PaginatedSearch ps) -> Multi.createFrom().items(() -> this.search(ps)));
+  }
+
+  /**
+   * Apply the same filters, sorting and pagination of the repository queries. Author searches are
+   * sorted from the newest to the oldest post, while every other search goes the other way around.
+   * Searches sorted by creation time are served straight from an index, while any other sort key
+   * requires every candidate post to be sorted first.
+   */
+  private Stream<Post> search(final PaginatedSearch paginatedSearch) {
+    final var isDescending = paginatedSearch.getAuthorFilter().isPresent();
+    final var cursor = paginatedSearch.getCursor();
+    final var page = cursor.isPresent() ? 0 : paginatedSearch.getPage();
+    final var sortBy = cursor.isPresent() ? PageCursor.SORT_FIELD : paginatedSearch.getSortBy();
+
+    final Stream<Post> candidates;
+    if (PageCursor.SORT_FIELD.equals(sortBy)) {
+      var index = isDescending
+          ? this.indexOf(paginatedSearch).descendingSet()
+          : this.indexOf(paginatedSearch);
+      if (cursor.isPresent()) {
+        index = index.tailSet(new TimelineKey(cursor.get().getCreationTime(), cursor.get().getId()),
+            false);
+      }
+      candidates = this.resolve(index);
+    } else {
+      candidates = this.resolve(this.indexOf(paginatedSearch))
+          .sorted(comparatorOf(sortBy, isDescending));
+    }
+
+    return candidates
+        .filter(filterOf(paginatedSearch))
+        .skip((long) page * paginatedSearch.getSize())
+        .limit(paginatedSearch.getSize())
+        .map(InMemoryDataAccess::copyOf);
+  }
+
+  private NavigableSet<TimelineKey> indexOf(final PaginatedSearch paginatedSearch) {
+    final var author = paginatedSearch.getAuthorFilter();
+    if (author.isPresent()) {
+      return this.timelineByAuthor.getOrDefault(author.get(), Collections.emptyNavigableSet());
+    }
+
+    return paginatedSearch.getPostStatusFilter()
+        .map(this.timelineByStatus::get)
+        .orElse(this.timeline);
+  }
+
+  private static Predicate<Post> filterOf(final PaginatedSearch paginatedSearch) {
+    Predicate<Post> filter = post -> true;
+
+    final var author = paginatedSearch.getAuthorFilter();
+    if (author.isPresent()) {
+      filter = post -> author.get().equals(post.getAuthor()) && post.isAuthorActive();
+    }
+
+    final var status = paginatedSearch.getPostStatusFilter();
+    if (status.isPresent()) {
+      filter = filter.and(post -> post.isEnabled() == status.get());
+    }
+    return filter;
+  }
+
+  private static Comparator<Post> comparatorOf(final String sortBy, final boolean isDescending) {
+    final var comparator = Optional.ofNullable(SORT_KEYS.get(sortBy))
+        .orElseThrow(() -> new IllegalArgumentException(
+            "Specified sort key is not supported: " + sortBy))
+        .thenComparing(Post::getId);
+    return isDescending ? comparator.reversed() : comparator;
+  }
+
+  private Stream<Post> resolve(final NavigableSet<TimelineKey> index) {
+    return index.stream()
+        .map(key -> this.posts.get(key.id))
+        .filter(Objects::nonNull);
+  }
+
+  private Stream<Post> lookup(final List<ObjectId> ids) {
+    return ids.stream()
+        .map(this.posts::get)
+        .filter(Objects::nonNull)
+        .map(InMemoryDataAccess::copyOf);
+  }
+
+  /**
+   * Store a copy of given post, replacing any previous version of it, and keep all indexes up to
+   * date. Must be called holding the write lock.
+   */
+  private void index(final Post post) {
+    final var stored = copyOf(post);
+    Optional.ofNullable(stored.getCreationTime())
+        .ifPresent(value -> stored.setCreationTime(value.truncatedTo(ChronoUnit.MILLIS)));
+
+    final var key = TimelineKey.of(stored);
+    final var previous = this.posts.put(stored.getId(), stored);
+    if (previous != null) {
+      this.timelineByStatus.get(!stored.isEnabled()).remove(key);
+    }
+    this.count(previous, stored);
+
+    this.timeline.add(key);
+    this.timelineByStatus.get(stored.isEnabled()).add(key);
+    if (stored.getAuthor() != null) {
+      this.timelineByAuthor
+          .computeIfAbsent(stored.getAuthor(), username -> new ConcurrentSkipListSet<>())
+          .add(key);
+    }
+  }
+
+  /**
+   * Update the counters of the post's author, mirroring the increments done by the repository.
+   * Must be called holding the write lock.
+   */
+  private void count(final Post previous, final Post stored) {
+    if (stored.getAuthor() == null
+        || (previous != null && previous.isEnabled() == stored.isEnabled())) {
+      return;
+    }
+
+    final var enabledChange = stored.isEnabled() ? 1L : previous == null ? 0L : -1L;
+    final var disabledChange = !stored.isEnabled() ? 1L : previous == null ? 0L : -1L;
+    this.counters.compute(stored.getAuthor(), (username, counter) -> {
+      final var counted = counter == null ? PostCounter.empty(username) : copyOf(counter);
+      counted.setTotal(counted.getTotal() + (previous == null ? 1L : 0L));
+      counted.setEnabled(counted.getEnabled() + enabledChange);
+      counted.setDisabled(counted.getDisabled() + disabledChange);
+      return counted;
+    });
+  }
+
+  private void append(final OutboxEvent event) {
+    this.pendingEvents.put(event.getId(), event);
+  }
+
+  private Author upsertAuthor(final Author author) {
+    return this.authors.compute(author.getUsername(), (username, stored) -> {
+      final var upserted = stored == null ? copyOf(author) : copyOf(stored);
+      if (upserted.getId() == null) {
+        upserted.setId(new ObjectId());
+      }
+      upserted.setActive(author.isActive());
+      return upserted;
+    });
+  }
+
+  /**
+   * Copy the author status into all of their posts, mirroring the denormalized status kept by the
+   * repository. Must be called holding the write lock.
+   */
+  private void fanOutStatus(final Author author) {
+    this.timelineByAuthor.getOrDefault(author.getUsername(), Collections.emptyNavigableSet())
+        .forEach(key -> this.posts.computeIfPresent(key.id, (id, stored) -> {
+          final var updated = copyOf(stored);
+          updated.setAuthorActive(author.isActive());
+          return updated;
+        }));
+  }
+
+  private static Post copyOf(final Post post) {
+    final var copy = new Post();
+    copy.setId(post.getId());
+    copy.setMessage(post.getMessage());
+    copy.setCreationTime(post.getCreationTime());
+    copy.setAuthor(post.getAuthor());
+    copy.setEnabled(post.isEnabled());
+    copy.setAuthorActive(post.isAuthorActive());
+    copy.setVersion(post.getVersion());
+    return copy;
+  }
+
+  private static Author copyOf(final Author author) {
+    final var copy = new Author();
+    copy.setId(author.getId());
+    copy.setUsername(author.getUsername());
+    copy.setActive(author.isActive());
+    return copy;
+  }
+
+  private static PostCounter copyOf(final PostCounter counter) {
+    final var copy = PostCounter.empty(counter.getId());
+    copy.setTotal(counter.getTotal());
+    copy.setEnabled(counter.getEnabled());
+    copy.setDisabled(counter.getDisabled());
+    return copy;
+  }
+
+  /**
+   * Position of a post within a timeline index. Posts without a creation time come first, just
+   * like they would on a MongoDB index.
+   */
+  @EqualsAndHashCode
+  @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+  private static final class TimelineKey implements Comparable<TimelineKey> {
+
+    private static final Comparator<TimelineKey> ORDER = Comparator
+        .comparing((TimelineKey key) -> key.creationTime,
+            Comparator.nullsFirst(Comparator.naturalOrder()))
+        .thenComparing(key -> key.id);
+
+    private final Instant creationTime;
+
+    private final ObjectId id;
+
+    static TimelineKey of(final Post post) {
+      return new TimelineKey(post.getCreationTime(), post.getId());
+    }
+
+    @Override
+    public int compareTo(final TimelineKey other) {
+      return ORDER.compare(this, other);
+    }
+  }
+}
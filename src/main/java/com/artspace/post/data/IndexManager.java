@@ -0,0 +1,206 @@
+package com.artspace.post.data;
+
+import com.mongodb.client.model.IndexOptions;
+import io.quarkus.arc.properties.UnlessBuildProperty;
+import io.quarkus.mongodb.reactive.ReactiveMongoClient;
+import io.quarkus.mongodb.reactive.ReactiveMongoDatabase;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Declares the indexes required by the queries of this application, creating them if missing. Each
+ * registered query shape will then be explained, and its winning plan verified against collection
+ * scans. Depending on the configured verification mode a collection scan, or a query shape that
+ * could not be explained, will be logged as a warning, or will fail the application startup.
+ * <p>
+ * Configurations for this component are under the prefix {@code post.indexes.*}.
+ */
+@ApplicationScoped
+@UnlessBuildProperty(name = "post.data.engine", stringValue = "memory", enableIfMissing = true)
+public class IndexManager {
+
+  private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+  private static final String COLLECTION_SCAN = "COLLSCAN";
+
+  private static final List<IndexDeclaration> INDEXES = List.of(
+      new IndexDeclaration("post",
+          new Document("username", 1).append("authorActive", 1).append("enabled", 1)
+              .append("creationTime", -1).append("_id", -1),
+          new IndexOptions().name("post_author_timeline")),
+      new IndexDeclaration("post",
+          new Document("username", 1).append("creationTime", -1).append("_id", -1),
+          new IndexOptions().name("post_author_timeline_enabled")
+              .partialFilterExpression(new Document("enabled", true).append("authorActive", true))),
+      new IndexDeclaration("post",
+          new Document("enabled", 1).append("creationTime", 1).append("_id", 1),
+          new IndexOptions().name("post_status_timeline")),
+      new IndexDeclaration("post",
+          new Document("creationTime", 1).append("_id", 1),
+          new IndexOptions().name("post_timeline")),
+      new IndexDeclaration("author",
+          new Document("username", 1),
+          new IndexOptions().name("author_username").unique(true)),
+      new IndexDeclaration("post_outbox",
+          new Document("sentAt", 1).append("_id", 1),
+          new IndexOptions().name("outbox_pending")),
+      new IndexDeclaration("post_outbox",
+          new Document("sentAt", 1),
+          new IndexOptions().name("outbox_sent_ttl").expireAfter(7L, TimeUnit.DAYS))
+  );
+
+  private static final Map<String, QueryShape> QUERY_SHAPES = Map.of(
+      "author.query", new QueryShape("post",
+          new Document("username", "").append("authorActive", true).append("enabled", true),
+          PageCursor.toSort(PageCursor.SORT_FIELD, true)),
+      "status.query", new QueryShape("post",
+          new Document("enabled", true),
+          PageCursor.toSort(PageCursor.SORT_FIELD, false)),
+      "post.ids", new QueryShape("post",
+          new Document("_id", new Document("$in", List.of(new ObjectId()))),
+          new Document()),
+      "author.username", new QueryShape("author",
+          new Document("username", ""),
+          new Document()),
+      "outbox.pending", new QueryShape("post_outbox",
+          new Document("sentAt", null),
+          new Document("_id", 1))
+  );
+
+  @ConfigProperty(name = "quarkus.mongodb.database")
+  String database;
+
+  @ConfigProperty(name = "post.indexes.verification", defaultValue = "warn")
+  String verification;
+
+  @Inject
+  ReactiveMongoClient mongoClient;
+
+  @Inject
+  Logger logger;
+
+  /**
+   * Create all missing indexes, and verify the query plan of all registered query shapes
+   *
+   * @throws IllegalStateException if an index could not be created, or a query shape could not be
+   *                               explained or is resolved by a collection scan, while
+   *                               verification is set to {@code fail}
+   */
+  public void bootstrap() {
+    final var mode = VerificationMode.parse(this.verification);
+    final var mongoDatabase = this.mongoClient.getDatabase(this.database);
+
+    INDEXES.forEach(index -> this.createIfMissing(mongoDatabase, index, mode));
+
+    if (mode != VerificationMode.NONE) {
+      QUERY_SHAPES.forEach((name, shape) -> this.verify(mongoDatabase, name, shape, mode));
+    }
+  }
+
+  private void createIfMissing(final ReactiveMongoDatabase mongoDatabase,
+      final IndexDeclaration index, final VerificationMode mode) {
+    try {
+      final var name = mongoDatabase.getCollection(index.collection)
+          .createIndex(index.keys, index.options)
+          .await()
+          .atMost(TIMEOUT);
+      logger.infof("Index %s.%s is available", index.collection, name);
+    } catch (Exception e) {
+      final var message = String.format("Index %s.%s could not be created",
+          index.collection, index.options.getName());
+      if (mode == VerificationMode.FAIL) {
+        throw new IllegalStateException(message, e);
+      }
+      logger.error(message, e);
+    }
+  }
+
+  private void verify(final ReactiveMongoDatabase mongoDatabase, final String name,
+      final QueryShape shape, final VerificationMode mode) {
+    final var command = new Document("explain",
+        new Document("find", shape.collection)
+            .append("filter", shape.filter)
+            .append("sort", shape.sort)
+            .append("limit", 1))
+        .append("verbosity", "queryPlanner");
+
+    final Document explained;
+    try {
+      explained = mongoDatabase.runCommand(command).await().atMost(TIMEOUT);
+    } catch (Exception e) {
+      final var message = String.format("Query %s could not be explained", name);
+      if (mode == VerificationMode.FAIL) {
+        throw new IllegalStateException(message, e);
+      }
+      logger.warn(message, e);
+      return;
+    }
+
+    final var queryPlanner = explained.get("queryPlanner", Document.class);
+    if (queryPlanner == null || !hasCollectionScan(queryPlanner.get("winningPlan"))) {
+      logger.debugf("Query %s is resolved by an index", name);
+      return;
+    }
+
+    final var message = String.format("Query %s is resolved by a collection scan on %s",
+        name, shape.collection);
+    if (mode == VerificationMode.FAIL) {
+      throw new IllegalStateException(message);
+    }
+    logger.warn(message);
+  }
+
+  private static boolean hasCollectionScan(final Object planNode) {
+    if (planNode instanceof Document) {
+      final var document = (Document) planNode;
+      return COLLECTION_SCAN.equals(document.get("stage")) || document.entrySet().stream()
+          .filter(entry -> !"rejectedPlans".equals(entry.getKey()))
+          .anyMatch(entry -> hasCollectionScan(entry.getValue()));
+    }
+
+    if (planNode instanceof List) {
+      return ((List<?>) planNode).stream().anyMatch(IndexManager::hasCollectionScan);
+    }
+
+    return false;
+  }
+
+  @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+  private static final class IndexDeclaration {
+
+    private final String collection;
+    private final Document keys;
+    private final IndexOptions options;
+  }
+
+  @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+  private static final class QueryShape {
+
+    private final String collection;
+    private final Document filter;
+    private final Document sort;
+  }
+
+  private enum VerificationMode {
+    NONE, WARN, FAIL;
+
+    static VerificationMode parse(String value) {
+      return Arrays.stream(values())
+          .filter(mode -> mode.name().equalsIgnoreCase(value))
+          .findFirst()
+          .orElseThrow(() -> new IllegalArgumentException(
+              "Specified value could not be parsed into a verification mode"));
+    }
+  }
+}
@@ -0,0 +1,18 @@
+package com.artspace.post.data;
+
+/**
+ * {@code InvalidSearchException} is thrown when the arguments of a post search given by a client,
+ * such as its cursor, projected fields or post status, can't be parsed or combined.
+ *
+ * <p>{@code InvalidSearchException} is an <em>unchecked exception</em>.
+ */
+public class InvalidSearchException extends IllegalArgumentException {
+
+  public InvalidSearchException(final String message) {
+    super(message);
+  }
+
+  public InvalidSearchException(final String message, final Throwable cause) {
+    super(message, cause);
+  }
+}
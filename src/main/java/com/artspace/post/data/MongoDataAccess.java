@@ -2,80 +2,469 @@ package com.artspace.post.data;
 
 import com.artspace.post.Author;
 import com.artspace.post.Post;
+import com.artspace.post.PostPatch;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ReadPreference;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.UpdateManyModel;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.reactivestreams.client.ClientSession;
+import io.quarkus.arc.DefaultBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.mongodb.FindOptions;
+import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import javax.annotation.PostConstruct;
 import javax.enterprise.context.ApplicationScoped;
 import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.conversions.Bson;
 import org.bson.types.ObjectId;
 
 /**
- * MongoDB implementation of a {@link PostDataAccess}
+ * MongoDB implementation of a {@link PostDataAccess}. This is the default implementation, replaced
+ * only when another engine is selected by {@code post.data.engine}.
  */
 @RequiredArgsConstructor
 @ApplicationScoped
+@DefaultBean
 class MongoDataAccess implements PostDataAccess {
 
+  private static final Document PENDING_EVENTS = new Document("sentAt", null);
+
+  private static final Document REVISION_PROJECTION =
+      new Document("version", 1).append("authorActive", 1);
+
+  private static final UpdateOptions UPSERT = new UpdateOptions().upsert(true);
+
   final PostRepository postRepository;
 
   final AuthorReactiveRepository authorReactiveRepository;
 
   final PostSearchFactory postSearchFactory;
 
+  final PostByIdBatcher postByIdBatcher;
+
+  final ReadPreferences readPreferences;
+
+  final AuthorStatusCache authorStatusCache;
+
+  final OutboxRepository outboxRepository;
+
+  final PostCounterRepository postCounterRepository;
+
+  final MongoTransactions transactions;
+
+  final MeterRegistry registry;
+
+  /**
+   * Concurrent lookups of the same author, by its normalized username, share a single query
+   */
+  SingleFlight<String, Optional<Author>> authorLookups;
+
+  @PostConstruct
+  void init() {
+    this.authorLookups = new SingleFlight<>("author_lookup", registry);
+  }
+
   @Override
   public Uni<Author> persist(Author author) {
-    return this.authorReactiveRepository.persist(author);
+    return this.authorReactiveRepository.persist(author)
+        .call(() -> this.fanOutStatus(List.of(author)))
+        .invoke(this::cacheStatus);
+  }
+
+  @Override
+  public Uni<Post> persist(final Post post, final Function<Post, OutboxEvent> eventOf) {
+    if (post.getId() == null) {
+      post.setId(new ObjectId());
+    }
+
+    return this.transactions.inTransaction(session -> this.postRepository.mongoCollection()
+        .insertOne(session, post)
+        .chain(() -> this.outboxRepository.mongoCollection()
+            .insertOne(session, eventOf.apply(post)))
+        .chain(() -> this.postCounterRepository.mongoCollection()
+            .updateOne(session, Filters.eq("_id", post.getAuthor()), countersOf(List.of(post)),
+                UPSERT))
+        .replaceWith(post));
   }
 
+  /**
+   * Posts are inserted by an ordered insertMany. An unordered insert wouldn't report partial
+   * results, since any write error aborts the whole transaction, along with the outbox events and
+   * counters written within it.
+   */
   @Override
-  public Uni<Post> persist(Post post) {
-    return this.postRepository.persist(post);
+  public Uni<List<Post>> persist(final List<Post> posts,
+      final Function<Post, OutboxEvent> eventOf) {
+    posts.stream()
+        .filter(post -> post.getId() == null)
+        .forEach(post -> post.setId(new ObjectId()));
+    final var events = posts.stream().map(eventOf).collect(Collectors.toList());
+
+    return this.transactions.inTransaction(session -> this.postRepository.mongoCollection()
+            .insertMany(session, posts)
+            .chain(() -> this.outboxRepository.mongoCollection().insertMany(session, events))
+            .chain(() -> this.postCounterRepository.mongoCollection()
+                .bulkWrite(session, counterUpdatesOf(posts)))
+            .replaceWith(posts))
+        .onFailure(MongoBulkWriteException.class)
+        .recoverWithItem(Collections.emptyList());
   }
 
   @Override
   public Uni<Optional<Author>> merge(final Author author) {
-    return this.authorReactiveRepository.update("active", author.isActive())
-        .where("username", author.getUsername())
-        .map(aLong->Optional.of(author));
+    return this.authorReactiveRepository.mongoCollection()
+        .updateMany(Filters.eq("username", author.getUsername()),
+            Updates.set("active", author.isActive()))
+        .chain(result -> result.getMatchedCount() == 0
+            ? Uni.createFrom().item(Optional.<Author>empty())
+            : this.fanOutStatus(List.of(author))
+                .invoke(() -> this.cacheStatus(author))
+                .replaceWith(Optional.of(author)));
   }
 
   @Override
-  public Uni<Optional<Post>> merge(Post post) {
-    return this.postRepository.update(post).map(Optional::of);
+  public Uni<Optional<Post>> update(final ObjectId id, final PostPatch patch,
+      final Long expectedVersion, final Function<Post, OutboxEvent> eventOf) {
+    final var filter = expectedVersion == null
+        ? Filters.eq("_id", id)
+        : Filters.and(Filters.eq("_id", id), versionFilter(expectedVersion));
+
+    final List<Bson> changes = new ArrayList<>();
+    Optional.ofNullable(patch.getMessage())
+        .ifPresent(message -> changes.add(Updates.set("message", message)));
+    Optional.ofNullable(patch.getEnabled())
+        .ifPresent(enabled -> changes.add(Updates.set("enabled", enabled)));
+    changes.add(Updates.inc("version", 1L));
+
+    final var options = new FindOneAndUpdateOptions().returnDocument(ReturnDocument.BEFORE);
+    return this.transactions.inTransaction(session -> this.postRepository.mongoCollection()
+        .findOneAndUpdate(session, filter, Updates.combine(changes), options)
+        .chain(previous -> previous == null
+            ? Uni.createFrom().item(Optional.<Post>empty())
+            : this.recordUpdate(session, previous, patch, eventOf)));
+  }
+
+  /**
+   * Write the outbox event of an updated post, and move the post between the counters of its
+   * author if its status was changed, within the same transaction as the update
+   */
+  private Uni<Optional<Post>> recordUpdate(final ClientSession session, final Post previous,
+      final PostPatch patch, final Function<Post, OutboxEvent> eventOf) {
+    final var wasEnabled = previous.isEnabled();
+    final var updated = patched(previous, patch);
+    return this.outboxRepository.mongoCollection().insertOne(session, eventOf.apply(updated))
+        .call(() -> wasEnabled == updated.isEnabled()
+            ? Uni.createFrom().voidItem()
+            : this.postCounterRepository.mongoCollection().updateOne(session,
+                Filters.eq("_id", updated.getAuthor()), statusChangeOf(updated.isEnabled()),
+                UPSERT))
+        .replaceWith(Optional.of(updated));
+  }
+
+  @Override
+  public Uni<Long> upsert(final List<Author> authors) {
+    final var upserts = authors.stream()
+        .map(author -> new UpdateOneModel<Author>(
+            Filters.eq("username", author.getUsername()),
+            Updates.set("active", author.isActive()),
+            new UpdateOptions().upsert(true)))
+        .collect(Collectors.toList());
+
+    return this.authorReactiveRepository.mongoCollection()
+        .bulkWrite(upserts, new BulkWriteOptions().ordered(false))
+        .call(() -> this.fanOutStatus(authors))
+        .invoke(() -> authors.forEach(this::cacheStatus))
+        .map(result -> (long) result.getMatchedCount() + result.getUpserts().size());
   }
 
   @Override
   public Uni<Boolean> isAuthorActive(String username) {
-    return this.authorReactiveRepository.find("username", username)
-        .singleResultOptional()
+    final var cachedStatus = this.authorStatusCache.getIfPresent(username);
+    if (cachedStatus.isPresent()) {
+      return Uni.createFrom().item(cachedStatus.get());
+    }
+
+    return this.findAuthorByUsername(username)
         .map(result -> result.map(Author::isActive).orElse(false));
   }
 
+  @Override
+  public Uni<Set<String>> findActiveAuthors(final Set<String> usernames) {
+    final Set<String> activeAuthors = new HashSet<>();
+    final List<String> uncachedAuthors = new ArrayList<>();
+    usernames.forEach(username -> this.authorStatusCache.getIfPresent(username)
+        .ifPresentOrElse(isActive -> {
+          if (Boolean.TRUE.equals(isActive)) {
+            activeAuthors.add(username);
+          }
+        }, () -> uncachedAuthors.add(username)));
+
+    if (uncachedAuthors.isEmpty()) {
+      return Uni.createFrom().item(activeAuthors);
+    }
+
+    return this.authorReactiveRepository.find("username in ?1", uncachedAuthors)
+        .<Author>list()
+        .invoke(authors -> authors.forEach(this::cacheStatus))
+        .map(authors -> {
+          authors.stream()
+              .filter(Author::isActive)
+              .map(Author::getUsername)
+              .forEach(activeAuthors::add);
+          return activeAuthors;
+        });
+  }
+
   @Override
   public Uni<Optional<Post>> findById(String id) {
-    return this.postRepository.findByIdOptional(new ObjectId(id));
+    return this.postByIdBatcher.findById(new ObjectId(id));
   }
 
   @Override
   public Uni<Optional<Post>> findById(ObjectId id) {
-    return this.postRepository.findByIdOptional(id);
+    return this.postByIdBatcher.findById(id);
+  }
+
+  @Override
+  public Uni<Boolean> existsById(final ObjectId id) {
+    return this.postRepository.findByIdOptional(id, ReadPreference.primary())
+        .map(Optional::isPresent);
   }
 
   @Override
   public Uni<List<Post>> findByIds(List<String> ids) {
-    final var objectIds = ids.stream().map(ObjectId::new).collect(Collectors.toList());
-    return this.postRepository.findByIds(objectIds);
+    return this.findInChunks(ids,
+        chunk -> this.postRepository.findByIds(chunk, this.readPreferences.getByIds()));
+  }
+
+  @Override
+  public Uni<List<Post>> findByIds(final List<String> ids, final PostProjection projection) {
+    return this.findInChunks(ids, chunk -> this.postRepository
+        .findByIds(chunk, projection, this.readPreferences.getByIds()));
+  }
+
+  /**
+   * Split given ids into chunks, each fetched by its own query, so no query holds an unbounded
+   * {@code $in} list. Up to {@code post.search.ids.concurrency} chunks are fetched at a time, and
+   * their posts are collected in no particular order.
+   */
+  private Uni<List<Post>> findInChunks(final List<String> ids,
+      final Function<List<ObjectId>, Uni<List<Post>>> finder) {
+    final var objectIds = ids.stream()
+        .map(ObjectId::new)
+        .distinct()
+        .collect(Collectors.toList());
+
+    final var chunkSize = this.postSearchFactory.getIdsChunkSize();
+    if (objectIds.size() <= chunkSize) {
+      return finder.apply(objectIds);
+    }
+
+    final var chunks = IntStream.range(0, (objectIds.size() + chunkSize - 1) / chunkSize)
+        .mapToObj(index -> objectIds.subList(index * chunkSize,
+            Math.min((index + 1) * chunkSize, objectIds.size())))
+        .collect(Collectors.toList());
+
+    return Multi.createFrom().iterable(chunks)
+        .onItem().transformToUni(finder).merge(this.postSearchFactory.getIdsConcurrency())
+        .collect().<List<Post>>in(ArrayList::new, List::addAll);
+  }
+
+  /**
+   * Posts stored before being versioned don't have a version, and are considered to be at the
+   * initial version
+   */
+  @Override
+  public Uni<Optional<Post>> findRevisionById(final ObjectId id) {
+    final var options = new FindOptions()
+        .filter(Filters.eq("_id", id))
+        .projection(REVISION_PROJECTION)
+        .limit(1);
+
+    return this.postRepository.mongoCollection()
+        .withReadPreference(this.readPreferences.getById())
+        .withDocumentClass(Document.class)
+        .find(options)
+        .collect().first()
+        .map(document -> Optional.ofNullable(document).map(found -> {
+          final var revision = new Post();
+          revision.setId(id);
+          revision.setVersion(Optional.ofNullable(found.get("version", Number.class))
+              .map(Number::longValue)
+              .orElse(0L));
+          revision.setAuthorActive(found.getBoolean("authorActive", false));
+          return revision;
+        }));
+  }
+
+  @Override
+  public Multi<Post> streamByIds(final List<String> ids) {
+    final var objectIds = ids.stream()
+        .map(String::trim)
+        .filter(ObjectId::isValid)
+        .map(ObjectId::new)
+        .collect(Collectors.toList());
+    final var options = new FindOptions()
+        .filter(Filters.in("_id", objectIds))
+        .batchSize(this.postSearchFactory.getStreamBatchSize());
+    return this.postRepository.mongoCollection()
+        .withReadPreference(this.readPreferences.getByIds())
+        .find(options);
   }
 
   @Override
   public Uni<Optional<Author>> findAuthorByUsername(String username) {
-    return this.authorReactiveRepository.find("username", username)
-        .singleResultOptional();
+    return this.authorLookups.execute(username, () -> this.authorReactiveRepository
+        .find("username", username)
+        .<Author>singleResultOptional()
+        .invoke(result -> result.ifPresent(this::cacheStatus)));
+  }
+
+  @Override
+  public Uni<PostCounter> findPostCounter(final String username) {
+    return this.postCounterRepository.findByIdOptional(username)
+        .map(counter -> counter.orElseGet(() -> PostCounter.empty(username)));
+  }
+
+  /**
+   * Events are claimed in three steps: the oldest claimable events are found, then the ones that
+   * are still claimable are leased at once under a new claim, so concurrent claimers can only lease
+   * each event once, and finally the events leased under that claim are read.
+   */
+  @Override
+  public Uni<List<OutboxEvent>> claimPendingEvents(final int limit, final Duration lease) {
+    final var now = Instant.now();
+    final var claim = new ObjectId().toHexString();
+    final var claimable = Filters.and(
+        Filters.eq("sentAt", null),
+        Filters.or(Filters.eq("leaseUntil", null), Filters.lt("leaseUntil", now)));
+    final var options = new FindOptions()
+        .projection(new Document("_id", 1))
+        .sort(new Document("_id", 1))
+        .limit(limit);
+
+    final var collection = this.outboxRepository.mongoCollection();
+    return collection.find(claimable, options)
+        .map(OutboxEvent::getId)
+        .collect().asList()
+        .chain(ids -> ids.isEmpty()
+            ? Uni.createFrom().item(Collections.<OutboxEvent>emptyList())
+            : collection.updateMany(Filters.and(Filters.in("_id", ids), claimable),
+                    Updates.combine(
+                        Updates.set("claimedBy", claim),
+                        Updates.set("leaseUntil", now.plus(lease))))
+                .chain(() -> this.outboxRepository
+                    .find(new Document("claimedBy", claim), new Document("_id", 1))
+                    .list()));
+  }
+
+  @Override
+  public Uni<Long> markAsSent(final List<ObjectId> eventIds) {
+    return this.outboxRepository.mongoCollection()
+        .updateMany(Filters.in("_id", eventIds), Updates.set("sentAt", Instant.now()))
+        .map(result -> (long) result.getModifiedCount());
+  }
+
+  @Override
+  public Uni<Long> countPendingEvents() {
+    return this.outboxRepository.count(PENDING_EVENTS);
+  }
+
+  @Override
+  public Uni<Optional<Instant>> findOldestPendingEvent() {
+    return this.outboxRepository.find(PENDING_EVENTS, new Document("_id", 1))
+        .<OutboxEvent>firstResultOptional()
+        .map(event -> event.map(OutboxEvent::getCreatedAt));
   }
 
   @Override
   public PaginatedSearch searchPosts() {
     return postSearchFactory.getNewInstance();
   }
+
+  /**
+   * Copy the authors status into all of their posts, which carry it denormalized, so author queries
+   * don't need to join both documents
+   */
+  private Uni<Long> fanOutStatus(final List<Author> authors) {
+    final var updates = authors.stream()
+        .map(author -> new UpdateManyModel<Post>(
+            Filters.eq("username", author.getUsername()),
+            Updates.set("authorActive", author.isActive())))
+        .collect(Collectors.toList());
+
+    return this.postRepository.mongoCollection()
+        .bulkWrite(updates, new BulkWriteOptions().ordered(false))
+        .map(result -> (long) result.getModifiedCount());
+  }
+
+  /**
+   * Apply a patch to the post found before the update, exactly as the update did, which spares
+   * reading the post back while still knowing the status it was at. Posts stored before being
+   * versioned are considered to be at the initial version.
+   */
+  private static Post patched(final Post previous, final PostPatch patch) {
+    Optional.ofNullable(patch.getMessage()).ifPresent(previous::setMessage);
+    Optional.ofNullable(patch.getEnabled()).ifPresent(previous::setEnabled);
+    previous.setVersion(previous.getVersion() + 1);
+    return previous;
+  }
+
+  /**
+   * Build the increments of the counters of newly inserted posts, grouped by author
+   */
+  private static List<UpdateOneModel<PostCounter>> counterUpdatesOf(final List<Post> posts) {
+    return posts.stream()
+        .collect(Collectors.groupingBy(Post::getAuthor))
+        .entrySet().stream()
+        .map(entry -> new UpdateOneModel<PostCounter>(
+            Filters.eq("_id", entry.getKey()), countersOf(entry.getValue()), UPSERT))
+        .collect(Collectors.toList());
+  }
+
+  private static Bson countersOf(final List<Post> posts) {
+    final var enabled = posts.stream().filter(Post::isEnabled).count();
+    return Updates.combine(
+        Updates.inc("total", (long) posts.size()),
+        Updates.inc("enabled", enabled),
+        Updates.inc("disabled", posts.size() - enabled));
+  }
+
+  private static Bson statusChangeOf(final boolean isEnabled) {
+    final var change = isEnabled ? 1L : -1L;
+    return Updates.combine(Updates.inc("enabled", change), Updates.inc("disabled", -change));
+  }
+
+  /**
+   * Posts stored before being versioned don't have a version, and are considered to be at the
+   * initial version
+   */
+  private static Bson versionFilter(final long expectedVersion) {
+    return expectedVersion == 0L
+        ? Filters.in("version", 0L, null)
+        : Filters.eq("version", expectedVersion);
+  }
+
+  private void cacheStatus(final Author author) {
+    this.authorStatusCache.put(author.getUsername(), author.isActive());
+  }
 }
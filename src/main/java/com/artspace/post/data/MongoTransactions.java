@@ -0,0 +1,61 @@
+package com.artspace.post.data;
+
+import com.mongodb.MongoException;
+import com.mongodb.reactivestreams.client.ClientSession;
+import io.quarkus.mongodb.reactive.ReactiveMongoClient;
+import io.smallrye.mutiny.Uni;
+import java.time.Duration;
+import java.util.function.Function;
+import javax.enterprise.context.ApplicationScoped;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Runs non-blocking units of work within a MongoDB transaction. Every write of a unit of work must
+ * be issued with the given session, to take part of its transaction.
+ * <p>
+ * Transactions require MongoDB to be deployed as a replica set, or as a sharded cluster.
+ * <p>
+ * Transactions writing the same document, such as the post counter of an author, conflict with
+ * each other, and all but one of them are aborted with a transient error. Units of work failing
+ * with a transient error are retried within a new transaction, a few times, after a short backoff.
+ */
+@ApplicationScoped
+@RequiredArgsConstructor
+class MongoTransactions {
+
+  private static final String TRANSIENT_ERROR = "TransientTransactionError";
+
+  private static final int MAX_RETRIES = 5;
+
+  private static final Duration INITIAL_BACKOFF = Duration.ofMillis(5);
+
+  final ReactiveMongoClient mongoClient;
+
+  /**
+   * Run given unit of work within a new transaction. The transaction is committed once the unit of
+   * work succeeds, and aborted if it fails. Units of work failing with a transient error are run
+   * again, within a new transaction, so they must not have side effects outside of it.
+   *
+   * @param work unit of work, issuing its writes with the given session
+   * @param <T>  type of the unit of work result
+   * @return an {@link Uni} that will resolve into the result of the unit of work, once committed
+   */
+  <T> Uni<T> inTransaction(final Function<ClientSession, Uni<T>> work) {
+    final Uni<T> transaction = this.mongoClient.startSession().chain(session -> {
+      session.startTransaction();
+      return work.apply(session)
+          .onFailure().call(() -> Uni.createFrom().publisher(session.abortTransaction()))
+          .call(() -> Uni.createFrom().publisher(session.commitTransaction()))
+          .eventually(session::close);
+    });
+
+    return transaction
+        .onFailure(MongoTransactions::isTransient)
+        .retry().withBackOff(INITIAL_BACKOFF).withJitter(0.5).atMost(MAX_RETRIES);
+  }
+
+  private static boolean isTransient(final Throwable failure) {
+    return failure instanceof MongoException
+        && ((MongoException) failure).hasErrorLabel(TRANSIENT_ERROR);
+  }
+}
@@ -0,0 +1,57 @@
+package com.artspace.post.data;
+
+import com.artspace.post.Post;
+import io.quarkus.mongodb.panache.common.MongoEntity;
+import java.time.Instant;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.bson.types.ObjectId;
+
+/**
+ * A post event waiting to be relayed to the message broker. Events are written within the same
+ * transaction as the post change they describe, so a change is never stored without its event, nor
+ * the other way around.
+ * <p>
+ * Events are pending while {@code sentAt} is not set, and are kept for a while after being sent.
+ * Pending events are claimed by a single relay at a time, which holds them until {@code
+ * leaseUntil}.
+ */
+@Data
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@MongoEntity(collection = "post_outbox")
+public class OutboxEvent {
+
+  private ObjectId id;
+
+  private String correlationId;
+
+  private String action;
+
+  private Post post;
+
+  private Instant createdAt;
+
+  private Instant sentAt;
+
+  private String claimedBy;
+
+  private Instant leaseUntil;
+
+  /**
+   * Create a new pending event for a post change
+   *
+   * @param post          snapshot of the post, right after the change
+   * @param action        action applied to the post
+   * @param correlationId Transit id of the original request that made this change necessary
+   * @return a new pending event
+   */
+  public static OutboxEvent of(final Post post, final String action, final String correlationId) {
+    return new OutboxEvent(new ObjectId(), correlationId, action, post, Instant.now(), null,
+        null, null);
+  }
+}
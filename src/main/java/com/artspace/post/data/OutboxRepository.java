@@ -0,0 +1,12 @@
+package com.artspace.post.data;
+
+import io.quarkus.mongodb.panache.reactive.ReactivePanacheMongoRepository;
+import javax.enterprise.context.ApplicationScoped;
+
+/**
+ * Non-Blocking implementation of an {@link OutboxEvent} repository
+ */
+@ApplicationScoped
+class OutboxRepository implements ReactivePanacheMongoRepository<OutboxEvent> {
+
+}
@@ -0,0 +1,109 @@
+package com.artspace.post.data;
+
+import com.artspace.post.Post;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+
+/**
+ * Position of a {@link Post} within a search result, used to resume a {@link PaginatedSearch} right
+ * after it. A cursor is made of the post's creation time and its identifier, which is used to break
+ * ties between posts created at the same instant.
+ * <p>
+ * Cursors are shipped to clients as opaque tokens. Searches resumed from a cursor use a range
+ * predicate over an index, instead of skipping all previous results, which would get linearly
+ * slower as deeper pages are requested.
+ */
+@Getter(AccessLevel.PACKAGE)
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+final class PageCursor {
+
+  static final String SORT_FIELD = "creationTime";
+
+  private static final String ID_FIELD = "_id";
+  private static final String SEPARATOR = ":";
+
+  private final Instant creationTime;
+
+  private final ObjectId id;
+
+  /**
+   * Creates a cursor positioned at given post
+   *
+   * @param post a search result
+   * @return a cursor positioned at the post, or {@code Optional.empty()} if the post wasn't
+   * persisted yet
+   */
+  static Optional<PageCursor> of(final Post post) {
+    if (post.getCreationTime() == null || post.getId() == null) {
+      return Optional.empty();
+    }
+    return Optional.of(new PageCursor(post.getCreationTime(), post.getId()));
+  }
+
+  /**
+   * Parse an opaque token, previously created by {@link #encode()}
+   *
+   * @param token an encoded cursor
+   * @return the decoded cursor
+   * @throws InvalidSearchException if given token is not a valid cursor
+   */
+  static PageCursor decode(final String token) {
+    try {
+      final var decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+      final var parts = decoded.split(SEPARATOR);
+      if (parts.length != 2) {
+        throw new IllegalArgumentException("Specified cursor is malformed");
+      }
+      return new PageCursor(Instant.ofEpochMilli(Long.parseLong(parts[0])), new ObjectId(parts[1]));
+    } catch (IllegalArgumentException e) {
+      throw new InvalidSearchException("Specified value could not be parsed into a cursor", e);
+    }
+  }
+
+  /**
+   * Encode this cursor into an opaque token, safe to be used in URLs
+   *
+   * @return the encoded cursor
+   */
+  String encode() {
+    final var value = this.creationTime.toEpochMilli() + SEPARATOR + this.id.toHexString();
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Build a range predicate that matches every post positioned after this cursor
+   *
+   * @param isDescending {@code true} if results are sorted from the newest to the oldest post
+   * @return a query filter
+   */
+  Document toFilter(final boolean isDescending) {
+    final var operator = isDescending ? "$lt" : "$gt";
+    final var creationDate = Date.from(this.creationTime);
+    return new Document("$or", List.of(
+        new Document(SORT_FIELD, new Document(operator, creationDate)),
+        new Document(SORT_FIELD, creationDate).append(ID_FIELD, new Document(operator, this.id))));
+  }
+
+  /**
+   * Build a sort order by given field, using the post identifier to break ties. This keeps results
+   * stable across pages, and is the order required to resume a search from a cursor.
+   *
+   * @param sortBy       post field to sort by
+   * @param isDescending {@code true} to sort in descending order
+   * @return a sort document
+   */
+  static Document toSort(final String sortBy, final boolean isDescending) {
+    final var direction = isDescending ? -1 : 1;
+    return new Document(sortBy, direction).append(ID_FIELD, direction);
+  }
+}
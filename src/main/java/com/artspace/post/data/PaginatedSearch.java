@@ -1,6 +1,7 @@
 package com.artspace.post.data;
 
 import com.artspace.post.Post;
+import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
 import java.util.List;
 import java.util.Optional;
@@ -17,6 +18,8 @@ public class PaginatedSearch {
 
   final Function<PaginatedSearch, Uni<List<Post>>> searchCallback;
 
+  final Function<PaginatedSearch, Multi<Post>> streamCallback;
+
   private String authorFilter = null;
 
   @Getter(AccessLevel.PROTECTED)
@@ -30,13 +33,9 @@ public class PaginatedSearch {
 
   private PostStatus postStatus;
 
-  long skipUntil() {
-    return (long) this.page * this.size;
-  }
+  private PageCursor cursor;
 
-  long limitTo() {
-    return this.size;
-  }
+  private PostProjection projection;
 
   Optional<String> getAuthorFilter() {
     return Optional.ofNullable(authorFilter);
@@ -46,6 +45,14 @@ public class PaginatedSearch {
     return this.postStatus.getValue();
   }
 
+  Optional<PageCursor> getCursor() {
+    return Optional.ofNullable(this.cursor);
+  }
+
+  Optional<PostProjection> getProjection() {
+    return Optional.ofNullable(this.projection);
+  }
+
   /**
    * Set the search page result
    *
@@ -93,13 +100,16 @@ public class PaginatedSearch {
 
   /**
    * Filter posts by an author. Adding an author filter will automatically exclude results from
-   * authors that are disabled
+   * authors that are disabled. Usernames are normalized, as posts are stored under the normalized
+   * username of their author.
    *
    * @param author username of the author
    * @return current instance of PaginatedSearch with added author filter
    */
   public PaginatedSearch byAuthor(String author) {
-    this.authorFilter = author;
+    this.authorFilter = Optional.ofNullable(author)
+        .map(value -> value.toLowerCase().trim())
+        .orElse(null);
     return this;
   }
 
@@ -108,13 +118,60 @@ public class PaginatedSearch {
    *
    * @param postStatus post status
    * @return current instance of PaginatedSearch with added author filter
-   * @throws IllegalArgumentException if status is blank, null or if given status is invalid
+   * @throws InvalidSearchException if status is blank, null or if given status is invalid
    */
   public PaginatedSearch byPostStatus(final String postStatus) {
     this.postStatus = PostStatus.parse(postStatus);
     return this;
   }
 
+  /**
+   * Resume the search right after the position identified by given cursor, instead of skipping to
+   * a page index. Searches resumed from a cursor are always sorted by the post's creation time, and
+   * will ignore the page index.
+   * <p>
+   * Blank cursors will be ignored, keeping the offset pagination.
+   *
+   * @param cursor an opaque cursor previously returned by {@link #nextCursorOf(List)}
+   * @return current instance of PaginatedSearch with updated cursor
+   * @throws InvalidSearchException if given cursor is invalid
+   */
+  public PaginatedSearch after(final String cursor) {
+    this.cursor = Optional.ofNullable(cursor)
+        .filter(s -> !s.isBlank())
+        .map(PageCursor::decode)
+        .orElse(null);
+    return this;
+  }
+
+  /**
+   * Read only a subset of the posts' properties, instead of whole posts. Found posts will only have
+   * the projected properties, and their creation time, set.
+   *
+   * @param projection properties to be read, or {@code null} to read whole posts
+   * @return current instance of PaginatedSearch with updated projection
+   */
+  public PaginatedSearch projectedTo(final PostProjection projection) {
+    this.projection = projection;
+    return this;
+  }
+
+  /**
+   * Create an opaque cursor that can be used to retrieve the page following given search result.
+   * Cursors are only available for searches sorted by the post's creation time.
+   *
+   * @param page a page returned by this search
+   * @return a cursor to the next page, or {@code Optional.empty()} if given page is the last one
+   */
+  public Optional<String> nextCursorOf(final List<Post> page) {
+    final var isSortedByCursor = this.cursor != null || PageCursor.SORT_FIELD.equals(this.sortBy);
+    if (!isSortedByCursor || page.isEmpty() || page.size() < this.size) {
+      return Optional.empty();
+    }
+
+    return PageCursor.of(page.get(page.size() - 1)).map(PageCursor::encode);
+  }
+
   /**
    * Apply filters, sorting and pagination and execute the search
    *
@@ -124,4 +181,14 @@ public class PaginatedSearch {
   public Uni<List<Post>> invoke() {
     return searchCallback.apply(this);
   }
+
+  /**
+   * Apply filters, sorting and pagination and execute the search, streaming its results as they
+   * are fetched from the repository, instead of collecting the whole page in memory
+   *
+   * @return a {@link Multi} that will emit each {@link Post} that fulfills the search requirements
+   */
+  public Multi<Post> stream() {
+    return streamCallback.apply(this);
+  }
 }
\ No newline at end of file
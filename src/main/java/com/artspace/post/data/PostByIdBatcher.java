@@ -0,0 +1,145 @@
+package com.artspace.post.data;
+
+import com.artspace.post.Post;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import org.bson.types.ObjectId;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Coalesces concurrent lookups of posts by id into batched reads. Lookups received within a short
+ * window are collected, and their distinct ids are fetched by a single {@code $in} query,
+ * completing every waiting lookup from its result. Lookups of the same id within a window share the
+ * same read, and the same post instance, which callers must not modify.
+ * <p>
+ * A batch is fetched as soon as its window elapses, or as soon as it holds the maximum amount of
+ * distinct ids, whichever comes first. Each lookup joins a batch only when subscribed. Batches are
+ * read with the {@code by-id} preference of the {@link ReadPreferences}.
+ * <p>
+ * The amount of distinct ids fetched by each batch is exported as the {@code
+ * post_find_by_id_batch_size} metric. Configurations for this batcher are under the prefix {@code
+ * post.search.by-id.batch.*}.
+ */
+@ApplicationScoped
+class PostByIdBatcher {
+
+  @ConfigProperty(name = "post.search.by-id.batch.enabled", defaultValue = "true")
+  boolean isEnabled;
+
+  @ConfigProperty(name = "post.search.by-id.batch.window-ms", defaultValue = "2")
+  long windowMillis;
+
+  @ConfigProperty(name = "post.search.by-id.batch.max-size", defaultValue = "100")
+  int maximumSize;
+
+  @Inject
+  PostRepository postRepository;
+
+  @Inject
+  ReadPreferences readPreferences;
+
+  @Inject
+  MeterRegistry registry;
+
+  DistributionSummary batchSizes;
+
+  private final Object lock = new Object();
+
+  /**
+   * Batch collecting lookups at the moment, or {@code null} if no lookup is waiting
+   */
+  private Map<ObjectId, CompletableFuture<Optional<Post>>> current;
+
+  @PostConstruct
+  void init() {
+    this.batchSizes = DistributionSummary.builder("post_find_by_id_batch_size")
+        .description("Distinct posts fetched by each batch of lookups by id")
+        .register(registry);
+  }
+
+  /**
+   * Find a post by its id, along with the other posts looked up within the same window
+   *
+   * @param id unique object identifier of the post
+   * @return an {@link Uni} which will resolve into the found post, or {@code Optional.empty()} if
+   * no post was found
+   */
+  Uni<Optional<Post>> findById(final ObjectId id) {
+    if (!isEnabled) {
+      return postRepository.findByIdOptional(id, readPreferences.getById());
+    }
+
+    return Uni.createFrom().emitter(emitter -> this.enqueue(id)
+        .whenComplete((found, failure) -> {
+          if (failure != null) {
+            emitter.fail(failure);
+          } else {
+            emitter.complete(found);
+          }
+        }));
+  }
+
+  private CompletableFuture<Optional<Post>> enqueue(final ObjectId id) {
+    final CompletableFuture<Optional<Post>> waiter;
+    Map<ObjectId, CompletableFuture<Optional<Post>>> full = null;
+
+    synchronized (lock) {
+      if (current == null) {
+        final var batch = new LinkedHashMap<ObjectId, CompletableFuture<Optional<Post>>>();
+        Infrastructure.getDefaultWorkerPool()
+            .schedule(() -> this.flush(batch), windowMillis, TimeUnit.MILLISECONDS);
+        current = batch;
+      }
+
+      waiter = current.computeIfAbsent(id, key -> new CompletableFuture<>());
+      if (current.size() >= maximumSize) {
+        full = current;
+        current = null;
+      }
+    }
+
+    if (full != null) {
+      this.fetch(full);
+    }
+    return waiter;
+  }
+
+  /**
+   * Fetch a batch whose window has elapsed, unless it was already fetched for being full
+   */
+  private void flush(final Map<ObjectId, CompletableFuture<Optional<Post>>> batch) {
+    synchronized (lock) {
+      if (current != batch) {
+        return;
+      }
+      current = null;
+    }
+
+    this.fetch(batch);
+  }
+
+  private void fetch(final Map<ObjectId, CompletableFuture<Optional<Post>>> batch) {
+    batchSizes.record(batch.size());
+    final var ids = new ArrayList<>(batch.keySet());
+    postRepository.findByIds(ids, readPreferences.getById()).subscribe().with(
+        posts -> {
+          final var found = posts.stream()
+              .collect(Collectors.toMap(Post::getId, Function.identity(), (a, b) -> a));
+          batch.forEach((id, waiter) -> waiter.complete(Optional.ofNullable(found.get(id))));
+        },
+        failure -> batch.values().forEach(waiter -> waiter.completeExceptionally(failure)));
+  }
+}
@@ -0,0 +1,59 @@
+package com.artspace.post.data;
+
+import io.quarkus.mongodb.panache.common.MongoEntity;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Materialized number of posts of an author, by post status. Counters are identified by the
+ * author's username, and are incremented within the same transaction as the post changes they
+ * count, so counting the posts of an author never needs to scan them.
+ * <p>
+ * Authors without any post might not have a counter stored yet, and are counted as having no
+ * posts. Counters of posts stored before counters were materialized are backfilled by the {@link
+ * PostCounterReconciliation}.
+ */
+@Data
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@MongoEntity(collection = "post_counter")
+public class PostCounter {
+
+  /**
+   * Username of the author whose posts are counted
+   */
+  private String id;
+
+  private long total;
+
+  private long enabled;
+
+  private long disabled;
+
+  /**
+   * Create a counter of an author without any post
+   *
+   * @param username username of the author
+   * @return a new counter, with every count set to zero
+   */
+  public static PostCounter empty(final String username) {
+    return new PostCounter(username, 0L, 0L, 0L);
+  }
+
+  /**
+   * Number of posts at given status
+   *
+   * @param postStatus name of a post status, {@code enabled}, {@code disabled} or {@code all}
+   * @return number of posts at given status
+   * @throws InvalidSearchException if given status is invalid
+   */
+  public long countOf(final String postStatus) {
+    return PostStatus.parse(postStatus).getValue()
+        .map(isEnabled -> isEnabled ? this.enabled : this.disabled)
+        .orElse(this.total);
+  }
+}
@@ -0,0 +1,69 @@
+package com.artspace.post.data;
+
+import io.quarkus.arc.properties.UnlessBuildProperty;
+import io.quarkus.scheduler.Scheduled;
+import io.quarkus.scheduler.Scheduled.ConcurrentExecution;
+import java.time.Duration;
+import java.util.List;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import org.bson.Document;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Background job that recounts the posts of every author into their {@link PostCounter}, which
+ * backfills the counters of posts stored before counters were materialized, and repairs any drift
+ * of the counters incremented along with each post change.
+ * <p>
+ * Posts are grouped by author with a single aggregation, whose counts replace the stored counters
+ * through a {@code $merge}. Posts changed while the aggregation runs might be counted against
+ * stale values, which is repaired by the next run.
+ * <p>
+ * Configurations for this job are under the prefix {@code post.reconciliation.post-counter.*}.
+ */
+@ApplicationScoped
+@UnlessBuildProperty(name = "post.data.engine", stringValue = "memory", enableIfMissing = true)
+class PostCounterReconciliation {
+
+  private static final Duration TIMEOUT = Duration.ofMinutes(5);
+
+  private static final String COUNTER_COLLECTION = "post_counter";
+
+  @ConfigProperty(name = "post.reconciliation.post-counter.enabled", defaultValue = "true")
+  boolean isEnabled;
+
+  @Inject
+  Logger logger;
+
+  @Inject
+  PostRepository postRepository;
+
+  @Scheduled(
+      every = "{post.reconciliation.post-counter.every}",
+      concurrentExecution = ConcurrentExecution.SKIP)
+  void reconcile() {
+    if (!isEnabled) {
+      return;
+    }
+
+    final var pipeline = List.of(
+        new Document("$group", new Document("_id", "$username")
+            .append("total", new Document("$sum", 1L))
+            .append("enabled", new Document("$sum",
+                new Document("$cond", List.of("$enabled", 1L, 0L))))),
+        new Document("$addFields", new Document("disabled",
+            new Document("$subtract", List.of("$total", "$enabled")))),
+        new Document("$merge", new Document("into", COUNTER_COLLECTION)
+            .append("on", "_id")
+            .append("whenMatched", "replace")
+            .append("whenNotMatched", "insert")));
+
+    this.postRepository.mongoCollection()
+        .aggregate(pipeline, Document.class)
+        .collect().asList()
+        .await().atMost(TIMEOUT);
+
+    logger.info("Post counter reconciliation recounted the posts of every author");
+  }
+}
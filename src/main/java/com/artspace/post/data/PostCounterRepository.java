@@ -0,0 +1,12 @@
+package com.artspace.post.data;
+
+import io.quarkus.mongodb.panache.reactive.ReactivePanacheMongoRepositoryBase;
+import javax.enterprise.context.ApplicationScoped;
+
+/**
+ * Non-Blocking implementation of a {@link PostCounter} repository, keyed by the author's username
+ */
+@ApplicationScoped
+class PostCounterRepository implements ReactivePanacheMongoRepositoryBase<PostCounter, String> {
+
+}
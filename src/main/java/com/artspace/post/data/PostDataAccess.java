@@ -2,9 +2,15 @@ package com.artspace.post.data;
 
 import com.artspace.post.Author;
 import com.artspace.post.Post;
+import com.artspace.post.PostPatch;
+import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
+import java.time.Instant;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import org.bson.types.ObjectId;
 
 /**
@@ -14,21 +20,147 @@ public interface PostDataAccess {
 
   Uni<Author> persist(final Author author);
 
-  Uni<Post> persist(final Post post);
+  /**
+   * Persist a post along with its outbox event, within the same transaction
+   *
+   * @param post    post to be persisted
+   * @param eventOf creates the outbox event of the persisted post
+   * @return an {@link Uni} that will resolve into the persisted post
+   */
+  Uni<Post> persist(final Post post, final Function<Post, OutboxEvent> eventOf);
 
+  /**
+   * Persist a batch of posts along with their outbox events, within the same transaction. Posts
+   * without an identifier will have one assigned before being persisted. The batch is all or
+   * nothing: if any post fails to be written, the whole batch is rolled back.
+   *
+   * @param posts   posts to be persisted
+   * @param eventOf creates the outbox event of each persisted post
+   * @return an {@link Uni} that will resolve into all given posts, or into an empty list if the
+   * batch was rolled back due to a write error
+   */
+  Uni<List<Post>> persist(final List<Post> posts, final Function<Post, OutboxEvent> eventOf);
+
+  /**
+   * Update the status of an existing author, and fan it out to the author's posts
+   *
+   * @param author author to be updated, identified by its username
+   * @return an {@link Uni} that will resolve into the updated author, or {@code Optional.empty()}
+   * if no author exists with given username, in which case nothing is updated
+   */
   Uni<Optional<Author>> merge(final Author author);
 
-  Uni<Optional<Post>> merge(final Post post);
+  /**
+   * Partially update a post, along with its outbox event, within the same transaction. No event
+   * will be written if the post is not updated.
+   *
+   * @param id              unique object identifier of the post
+   * @param patch           changes to be applied
+   * @param expectedVersion version the post is expected to be at, or {@code null} to ignore it
+   * @param eventOf         creates the outbox event of the updated post
+   * @return an {@link Uni} that will resolve into the updated post, or {@code Optional.empty()} if
+   * no post was updated
+   */
+  Uni<Optional<Post>> update(final ObjectId id, final PostPatch patch, final Long expectedVersion,
+      final Function<Post, OutboxEvent> eventOf);
+
+  Uni<Long> upsert(final List<Author> authors);
 
   Uni<Boolean> isAuthorActive(String username);
 
+  /**
+   * Find, among the given usernames, the ones that belong to existent and active authors
+   *
+   * @param usernames normalized usernames
+   * @return an {@link Uni} that will resolve into the usernames of the active authors
+   */
+  Uni<Set<String>> findActiveAuthors(final Set<String> usernames);
+
   Uni<Optional<Post>> findById(String id);
 
   Uni<Optional<Post>> findById(final ObjectId id);
 
+  /**
+   * Verify if a post exists, reading it from the primary, without batching it with other lookups,
+   * so a post stored moments ago is never missed due to a lagging secondary
+   *
+   * @param id unique object identifier of the post
+   * @return an {@link Uni} that will resolve into {@code true} if the post exists
+   */
+  Uni<Boolean> existsById(final ObjectId id);
+
   Uni<List<Post>> findByIds(List<String> id);
 
+  /**
+   * Find posts by their ids, reading only a subset of their properties
+   *
+   * @param ids        posts' unique object identifiers
+   * @param projection properties to be read
+   * @return an {@link Uni} that will resolve into the found posts, which might have only the
+   * projected properties set
+   */
+  Uni<List<Post>> findByIds(final List<String> ids, final PostProjection projection);
+
+  /**
+   * Find the current revision of a post, its version and the denormalized status of its author,
+   * without loading the whole post
+   *
+   * @param id unique object identifier of the post
+   * @return an {@link Uni} that will resolve into the post, with only its id, version and author
+   * status set, or {@code Optional.empty()} if the post doesn't exist
+   */
+  Uni<Optional<Post>> findRevisionById(final ObjectId id);
+
+  /**
+   * Stream posts by their ids, as they are fetched from the repository. Ids are trimmed, and ids
+   * that are not valid object identifiers are skipped, since no post could be found by them.
+   *
+   * @param ids posts' unique object identifiers
+   * @return a {@link Multi} that will emit each found post
+   */
+  Multi<Post> streamByIds(final List<String> ids);
+
   Uni<Optional<Author>> findAuthorByUsername(String username);
 
+  /**
+   * Find the materialized number of posts of an author, which is maintained along with every post
+   * insert and status change, instead of counting the author's posts
+   *
+   * @param username username of the author
+   * @return an {@link Uni} that will resolve into the author's counter, with every count set to
+   * zero if the author has no posts
+   */
+  Uni<PostCounter> findPostCounter(final String username);
+
+  /**
+   * Claim the oldest outbox events that were not sent yet, and that are not claimed by anyone else.
+   * Claimed events are leased to their claimer, and can't be claimed again until the lease expires,
+   * so concurrent claimers, such as the relays of other instances, never claim the same events.
+   * Events whose claimer fails to mark them as sent will be claimed again once their lease expires.
+   *
+   * @param limit max number of events
+   * @param lease how long the claimed events are held by the claimer
+   * @return an {@link Uni} that will resolve into the claimed events, from the oldest to the newest
+   */
+  Uni<List<OutboxEvent>> claimPendingEvents(final int limit, final Duration lease);
+
+  /**
+   * Mark outbox events as sent
+   *
+   * @param eventIds identifiers of the sent events
+   * @return an {@link Uni} that will resolve into the number of events marked as sent
+   */
+  Uni<Long> markAsSent(final List<ObjectId> eventIds);
+
+  Uni<Long> countPendingEvents();
+
+  /**
+   * Find when the oldest outbox event that was not sent yet was created
+   *
+   * @return an {@link Uni} that will resolve into the creation time of the oldest pending event, or
+   * {@code Optional.empty()} if there are no pending events
+   */
+  Uni<Optional<Instant>> findOldestPendingEvent();
+
   PaginatedSearch searchPosts();
 }
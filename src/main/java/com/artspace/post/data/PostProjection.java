@@ -0,0 +1,115 @@
+package com.artspace.post.data;
+
+import com.artspace.post.Post;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+
+/**
+ * Subset of a {@link Post} properties requested by a client, so the repository only reads, and the
+ * resources only serialize, the requested properties instead of whole posts. A post's id is always
+ * part of a projection.
+ * <p>
+ * Posts are read along with their creation time, even when it is not requested, so the cursor to a
+ * following page can still be derived from a projected page. A projection of ids alone is resolved
+ * as a covered query by the timeline indexes, which hold both the id and the creation time, without
+ * reading the documents themselves.
+ */
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class PostProjection {
+
+  private static final String SEPARATOR = ",";
+
+  private final Set<Property> properties;
+
+  /**
+   * Parse a comma separated list of post properties, such as {@code id,creationTime}. Parsing is
+   * case-sensitive, matching the property names of a serialized post.
+   *
+   * @param fields comma separated list of post properties
+   * @return a projection of the id, and of given properties
+   * @throws InvalidSearchException if no properties are given, or any of them is unknown
+   */
+  public static PostProjection parse(final String fields) {
+    final var names = Arrays.stream(fields.split(SEPARATOR))
+        .map(String::trim)
+        .filter(name -> !name.isEmpty())
+        .collect(Collectors.toList());
+    if (names.isEmpty()) {
+      throw new InvalidSearchException("At least one post field must be projected");
+    }
+
+    final var properties = EnumSet.of(Property.ID);
+    names.forEach(name -> properties.add(Property.of(name)));
+    return new PostProjection(Collections.unmodifiableSet(properties));
+  }
+
+  /**
+   * Verify if this projection only holds the posts' ids
+   *
+   * @return {@code true} if only ids are projected
+   */
+  public boolean isIdsOnly() {
+    return properties.size() == 1;
+  }
+
+  /**
+   * Build the representation of a post holding only the projected properties, in their declaration
+   * order
+   *
+   * @param post a post read with this projection
+   * @return projected properties, by their name
+   */
+  public Map<String, Object> apply(final Post post) {
+    final Map<String, Object> projected = new LinkedHashMap<>();
+    properties.forEach(property -> projected.put(property.name, property.getter.apply(post)));
+    return projected;
+  }
+
+  /**
+   * Names of the projected properties, in their declaration order
+   */
+  public List<String> getFields() {
+    return properties.stream().map(property -> property.name).collect(Collectors.toList());
+  }
+
+  Document toDocument() {
+    final var projection = new Document(PageCursor.SORT_FIELD, 1);
+    properties.forEach(property -> projection.append(property.field, 1));
+    return projection;
+  }
+
+  @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+  private enum Property {
+    ID("id", "_id", Post::getId),
+    MESSAGE("message", "message", Post::getMessage),
+    CREATION_TIME("creationTime", PageCursor.SORT_FIELD, Post::getCreationTime),
+    AUTHOR("author", "username", Post::getAuthor),
+    ENABLED("enabled", "enabled", Post::isEnabled),
+    AUTHOR_ACTIVE("authorActive", "authorActive", Post::isAuthorActive),
+    VERSION("version", "version", Post::getVersion);
+
+    private final String name;
+
+    private final String field;
+
+    private final Function<Post, Object> getter;
+
+    static Property of(final String name) {
+      return Arrays.stream(values())
+          .filter(property -> property.name.equals(name))
+          .findFirst()
+          .orElseThrow(() -> new InvalidSearchException(
+              "Specified value could not be parsed into a post field: " + name));
+    }
+  }
+}
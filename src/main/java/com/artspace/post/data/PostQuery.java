@@ -1,10 +1,21 @@
 package com.artspace.post.data;
 
 import com.artspace.post.Post;
+import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
 import java.util.List;
 
 interface PostQuery {
 
   Uni<List<Post>> invoke(final PaginatedSearch paginatedSearch);
-}
\ No newline at end of file
+
+  /**
+   * Execute the search streaming its results straight from the repository's cursor, instead of
+   * materializing the whole page in memory
+   *
+   * @param paginatedSearch search to be executed
+   * @param batchSize       number of posts fetched from the repository per round trip
+   * @return a {@link Multi} that will emit the posts that fulfills the search requirements
+   */
+  Multi<Post> stream(final PaginatedSearch paginatedSearch, final int batchSize);
+}
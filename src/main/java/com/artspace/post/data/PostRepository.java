@@ -1,17 +1,61 @@
 package com.artspace.post.data;
 
 import com.artspace.post.Post;
+import com.mongodb.ReadPreference;
+import com.mongodb.client.model.Filters;
+import io.quarkus.mongodb.FindOptions;
 import io.quarkus.mongodb.panache.reactive.ReactivePanacheMongoRepository;
 import io.smallrye.mutiny.Uni;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
 import javax.enterprise.context.ApplicationScoped;
 import org.bson.types.ObjectId;
 
 @ApplicationScoped
 public class PostRepository implements ReactivePanacheMongoRepository<Post> {
 
-  public Uni<List<Post>> findByIds(final List<ObjectId> ids) {
-    return find("_id in ?1", ids).list();
+  /**
+   * Find a post by its id, read from a member of the replica set eligible by given preference
+   *
+   * @param id             post's unique object identifier
+   * @param readPreference preference of the member to read from
+   * @return an {@link Uni} that will resolve into the found post, or {@code Optional.empty()}
+   */
+  public Uni<Optional<Post>> findByIdOptional(final ObjectId id,
+      final ReadPreference readPreference) {
+    return mongoCollection().withReadPreference(readPreference)
+        .find(Filters.eq("_id", id))
+        .collect().first()
+        .map(Optional::ofNullable);
+  }
+
+  /**
+   * Find posts by their ids, read from a member of the replica set eligible by given preference
+   *
+   * @param ids            posts' unique object identifiers
+   * @param readPreference preference of the member to read from
+   * @return an {@link Uni} that will resolve into the found posts
+   */
+  public Uni<List<Post>> findByIds(final List<ObjectId> ids, final ReadPreference readPreference) {
+    return mongoCollection().withReadPreference(readPreference)
+        .find(Filters.in("_id", ids))
+        .collect().asList();
+  }
+
+  /**
+   * Find posts by their ids, reading only the projected properties of each post
+   *
+   * @param ids            posts' unique object identifiers
+   * @param projection     properties to be read
+   * @param readPreference preference of the member to read from
+   * @return an {@link Uni} that will resolve into the found posts, with only the projected
+   * properties set
+   */
+  public Uni<List<Post>> findByIds(final List<ObjectId> ids, final PostProjection projection,
+      final ReadPreference readPreference) {
+    final var options = new FindOptions()
+        .filter(Filters.in("_id", ids))
+        .projection(projection.toDocument());
+    return mongoCollection().withReadPreference(readPreference).find(options).collect().asList();
   }
 }
@@ -1,12 +1,15 @@
 package com.artspace.post.data;
 
 import com.artspace.post.Post;
+import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
 import java.util.List;
 import java.util.function.Function;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import javax.inject.Named;
+import lombok.AccessLevel;
+import lombok.Getter;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 /**
@@ -36,6 +39,18 @@ class PostSearchFactory {
   @ConfigProperty(name = "post.search.filter.status", defaultValue = "all")
   String defaultStatus;
 
+  @Getter(AccessLevel.PACKAGE)
+  @ConfigProperty(name = "post.search.stream.batch-size", defaultValue = "100")
+  int streamBatchSize;
+
+  @Getter(AccessLevel.PACKAGE)
+  @ConfigProperty(name = "post.search.ids.chunk-size", defaultValue = "100")
+  int idsChunkSize;
+
+  @Getter(AccessLevel.PACKAGE)
+  @ConfigProperty(name = "post.search.ids.concurrency", defaultValue = "4")
+  int idsConcurrency;
+
   @Inject
   PostRepository postRepository;
 
@@ -47,13 +62,32 @@ class PostSearchFactory {
 
   PaginatedSearch getNewInstance() {
     final Function<PaginatedSearch, Uni<List<Post>>> searchCallback =
-        (PaginatedSearch ps) -> (ps.getAuthorFilter().isPresent() ? lookupQuery : postStatusFindQuery).
-            invoke(ps);
+        (PaginatedSearch ps) -> queryOf(ps).invoke(ps);
+
+    final Function<PaginatedSearch, Multi<Post>> streamCallback =
+        (PaginatedSearch ps) -> queryOf(ps).stream(ps, streamBatchSize);
 
-    return new PaginatedSearch(searchCallback)
+    return getNewInstance(searchCallback, streamCallback);
+  }
+
+  /**
+   * Build a search that will be executed by given callbacks, instead of the repository queries,
+   * initialized with the same default values
+   *
+   * @param searchCallback executes the search, collecting a page of results
+   * @param streamCallback executes the search, streaming its results
+   * @return a new instance of PaginatedSearch
+   */
+  PaginatedSearch getNewInstance(final Function<PaginatedSearch, Uni<List<Post>>> searchCallback,
+      final Function<PaginatedSearch, Multi<Post>> streamCallback) {
+    return new PaginatedSearch(searchCallback, streamCallback)
         .pageSize(defaultPageSize)
         .atPage(defaultPageIndex)
         .sortedBy(defaultSort)
         .byPostStatus(defaultStatus);
   }
+
+  private PostQuery queryOf(final PaginatedSearch paginatedSearch) {
+    return paginatedSearch.getAuthorFilter().isPresent() ? lookupQuery : postStatusFindQuery;
+  }
 }
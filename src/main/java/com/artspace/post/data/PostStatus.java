@@ -22,13 +22,13 @@ enum PostStatus {
    *
    * @param value name of a post status
    * @return a PostStatus instance
-   * @throws IllegalArgumentException if no status can be found with given value
+   * @throws InvalidSearchException if no status can be found with given value
    */
   static PostStatus parse(String value) {
     return Arrays.stream(values())
         .filter(status -> status.name().equalsIgnoreCase(value))
         .findFirst()
-        .orElseThrow(() -> new IllegalArgumentException(
+        .orElseThrow(() -> new InvalidSearchException(
             "Specified value could not be parsed into a Status"));
   }
 
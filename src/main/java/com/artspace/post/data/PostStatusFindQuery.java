@@ -1,16 +1,24 @@
 package com.artspace.post.data;
 
 import com.artspace.post.Post;
-import io.quarkus.panache.common.Sort;
+import io.quarkus.mongodb.FindOptions;
+import io.quarkus.mongodb.reactive.ReactiveMongoCollection;
+import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
 import java.util.List;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Named;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
+import org.bson.Document;
 
 /**
- * Query posts by post status.
+ * Query posts by post status. Results are sorted from the oldest to the newest post. Searches
+ * resumed from a {@link PageCursor} will use a range predicate on the post's creation time, instead
+ * of skipping to the requested page.
+ * <p>
+ * Results can either be listed, or streamed straight from the repository's cursor. Searches
+ * projected to ids alone are covered by the {@code (enabled, creationTime, _id)} index.
  */
 @Named("status.query")
 @ApplicationScoped
@@ -19,15 +27,52 @@ public class PostStatusFindQuery implements PostQuery {
 
   final PostRepository postRepository;
 
+  final ReadPreferences readPreferences;
+
   @Override
   public Uni<List<Post>> invoke(final PaginatedSearch paginatedSearch) {
-    final var postStatusFilter = paginatedSearch.getPostStatusFilter();
-    final var sort = Sort.by(paginatedSearch.getSortBy());
-
-    return postStatusFilter
-        .map(value -> postRepository.find("enabled", sort, value))
-        .orElseGet(() -> postRepository.findAll(sort))
-        .page(paginatedSearch.getPage(), paginatedSearch.getSize())
-        .list();
+    final var options = new FindOptions()
+        .sort(sortOf(paginatedSearch))
+        .skip(pageOf(paginatedSearch) * paginatedSearch.getSize())
+        .limit(paginatedSearch.getSize());
+    paginatedSearch.getProjection()
+        .ifPresent(projection -> options.projection(projection.toDocument()));
+
+    return collection().find(filterOf(paginatedSearch), options).collect().asList();
+  }
+
+  @Override
+  public Multi<Post> stream(final PaginatedSearch paginatedSearch, final int batchSize) {
+    final var options = new FindOptions()
+        .sort(sortOf(paginatedSearch))
+        .skip(pageOf(paginatedSearch) * paginatedSearch.getSize())
+        .limit(paginatedSearch.getSize())
+        .batchSize(batchSize);
+    paginatedSearch.getProjection()
+        .ifPresent(projection -> options.projection(projection.toDocument()));
+
+    return collection().find(filterOf(paginatedSearch), options);
+  }
+
+  private ReactiveMongoCollection<Post> collection() {
+    return postRepository.mongoCollection().withReadPreference(readPreferences.getStatusQuery());
+  }
+
+  private static Document filterOf(final PaginatedSearch paginatedSearch) {
+    final var query = new Document();
+    paginatedSearch.getPostStatusFilter().ifPresent(value -> query.append("enabled", value));
+    paginatedSearch.getCursor().ifPresent(value -> query.putAll(value.toFilter(false)));
+    return query;
+  }
+
+  private static Document sortOf(final PaginatedSearch paginatedSearch) {
+    final var sortBy = paginatedSearch.getCursor().isPresent()
+        ? PageCursor.SORT_FIELD
+        : paginatedSearch.getSortBy();
+    return PageCursor.toSort(sortBy, false);
+  }
+
+  private static int pageOf(final PaginatedSearch paginatedSearch) {
+    return paginatedSearch.getCursor().isPresent() ? 0 : paginatedSearch.getPage();
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,156 @@
+package com.artspace.post.data;
+
+import com.mongodb.ReadPreference;
+import com.mongodb.Tag;
+import com.mongodb.TagSet;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Read preferences of the post reads that might be routed to secondaries of the replica set, each
+ * configured by a mode, an optional max staleness, and optional tag sets. Every read defaults to
+ * the primary.
+ * <p>
+ * Tag sets are separated by {@code ;}, and the tags of a set by {@code ,}, such as {@code
+ * dc:east,usage:reporting;dc:east}. Sets are tried in order, and an empty trailing set, such as in
+ * {@code dc:east;}, falls back to any eligible member. Tag sets and max staleness can't be combined
+ * with the primary mode.
+ * <p>
+ * Reads of authors, which are used to validate new posts, are not configured here and always go to
+ * the client's default, the primary, so a post is never validated against a stale author.
+ * <p>
+ * Configurations for these preferences are under the prefix {@code post.read-preference.*}, and
+ * are verified at startup.
+ */
+@ApplicationScoped
+class ReadPreferences {
+
+  private static final String TAG_SET_SEPARATOR = ";";
+
+  private static final String TAG_SEPARATOR = ",";
+
+  private static final String VALUE_SEPARATOR = ":";
+
+  @ConfigProperty(name = "post.read-preference.author-query.mode", defaultValue = "primary")
+  String authorQueryMode;
+
+  @ConfigProperty(name = "post.read-preference.author-query.max-staleness")
+  Optional<Duration> authorQueryMaxStaleness;
+
+  @ConfigProperty(name = "post.read-preference.author-query.tags")
+  Optional<String> authorQueryTags;
+
+  @ConfigProperty(name = "post.read-preference.status-query.mode", defaultValue = "primary")
+  String statusQueryMode;
+
+  @ConfigProperty(name = "post.read-preference.status-query.max-staleness")
+  Optional<Duration> statusQueryMaxStaleness;
+
+  @ConfigProperty(name = "post.read-preference.status-query.tags")
+  Optional<String> statusQueryTags;
+
+  @ConfigProperty(name = "post.read-preference.by-id.mode", defaultValue = "primary")
+  String byIdMode;
+
+  @ConfigProperty(name = "post.read-preference.by-id.max-staleness")
+  Optional<Duration> byIdMaxStaleness;
+
+  @ConfigProperty(name = "post.read-preference.by-id.tags")
+  Optional<String> byIdTags;
+
+  @ConfigProperty(name = "post.read-preference.by-ids.mode", defaultValue = "primary")
+  String byIdsMode;
+
+  @ConfigProperty(name = "post.read-preference.by-ids.max-staleness")
+  Optional<Duration> byIdsMaxStaleness;
+
+  @ConfigProperty(name = "post.read-preference.by-ids.tags")
+  Optional<String> byIdsTags;
+
+  /**
+   * Read preference of the searches by author, executed by the {@link AuthorLookupQuery}
+   */
+  @Getter(AccessLevel.PACKAGE)
+  ReadPreference authorQuery;
+
+  /**
+   * Read preference of the searches by status, executed by the {@link PostStatusFindQuery}
+   */
+  @Getter(AccessLevel.PACKAGE)
+  ReadPreference statusQuery;
+
+  /**
+   * Read preference of the lookups of a single post, or of its revision
+   */
+  @Getter(AccessLevel.PACKAGE)
+  ReadPreference byId;
+
+  /**
+   * Read preference of the lookups of several posts by their ids, either listed or streamed
+   */
+  @Getter(AccessLevel.PACKAGE)
+  ReadPreference byIds;
+
+  @PostConstruct
+  void init() {
+    this.authorQuery = readPreferenceOf(authorQueryMode, authorQueryMaxStaleness, authorQueryTags);
+    this.statusQuery = readPreferenceOf(statusQueryMode, statusQueryMaxStaleness, statusQueryTags);
+    this.byId = readPreferenceOf(byIdMode, byIdMaxStaleness, byIdTags);
+    this.byIds = readPreferenceOf(byIdsMode, byIdsMaxStaleness, byIdsTags);
+  }
+
+  /**
+   * Build a read preference from its configuration
+   *
+   * @param mode         name of the read preference, such as {@code secondaryPreferred}
+   * @param maxStaleness how stale a secondary can be to be read from, if limited
+   * @param tags         tag sets of the members to be read from, if any
+   * @return the configured read preference
+   * @throws IllegalArgumentException if the mode is unknown, tags are malformed, or if tags or
+   *                                  max staleness are given along with the primary mode
+   */
+  static ReadPreference readPreferenceOf(final String mode, final Optional<Duration> maxStaleness,
+      final Optional<String> tags) {
+    final var tagSets = tags.filter(value -> !value.isBlank())
+        .map(ReadPreferences::tagSetsOf)
+        .orElse(List.of());
+
+    if (maxStaleness.isPresent()) {
+      return ReadPreference.valueOf(mode, tagSets, maxStaleness.get().toMillis(),
+          TimeUnit.MILLISECONDS);
+    }
+
+    return tagSets.isEmpty()
+        ? ReadPreference.valueOf(mode)
+        : ReadPreference.valueOf(mode, tagSets);
+  }
+
+  private static List<TagSet> tagSetsOf(final String tags) {
+    return Arrays.stream(tags.split(TAG_SET_SEPARATOR, -1))
+        .map(String::trim)
+        .map(tagSet -> tagSet.isEmpty()
+            ? new TagSet()
+            : new TagSet(Arrays.stream(tagSet.split(TAG_SEPARATOR))
+                .map(String::trim)
+                .map(ReadPreferences::tagOf)
+                .collect(Collectors.toList())))
+        .collect(Collectors.toList());
+  }
+
+  private static Tag tagOf(final String tag) {
+    final var parts = tag.split(VALUE_SEPARATOR, 2);
+    if (parts.length != 2 || parts[0].isBlank() || parts[1].isBlank()) {
+      throw new IllegalArgumentException("Read preference tags must be set as name:value: " + tag);
+    }
+    return new Tag(parts[0].trim(), parts[1].trim());
+  }
+}
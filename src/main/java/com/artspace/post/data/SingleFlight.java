@@ -0,0 +1,138 @@
+package com.artspace.post.data;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.smallrye.mutiny.Uni;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicates concurrent calls by key. While a call for a key is in flight, identical calls join
+ * it, sharing its outcome and the same result instance, instead of issuing calls of their own. A
+ * call is forgotten as soon as it completes, so results are never reused by later calls, which
+ * keeps this from serving stale data as a cache would.
+ * <p>
+ * Callers are expected to use an instance for either reactive or blocking calls, but not both.
+ * <p>
+ * The calls executed and the calls that joined an in-flight call are exported by the {@code
+ * post_single_flight_calls} metric, tagged by the flight's name and the call outcome, {@code
+ * executed} or {@code shared}.
+ *
+ * @param <K> type of the keys identifying identical calls
+ * @param <V> type of the calls' results
+ */
+public class SingleFlight<K, V> {
+
+  private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+  private final Counter executed;
+
+  private final Counter shared;
+
+  /**
+   * Build a new flight, registering its metrics
+   *
+   * @param name     name of the flight, tagging its metrics
+   * @param registry registry of the flight's metrics
+   */
+  public SingleFlight(final String name, final MeterRegistry registry) {
+    this.executed = counterOf(name, "executed", registry);
+    this.shared = counterOf(name, "shared", registry);
+  }
+
+  /**
+   * Execute a reactive call, unless an identical call is already in flight, in which case its
+   * outcome is shared. The call joins the flight only when subscribed.
+   *
+   * @param key  key identifying identical calls
+   * @param call supplier of the call, only invoked if no identical call is in flight
+   * @return an {@link Uni} that will resolve into the outcome of the call
+   */
+  public Uni<V> execute(final K key, final Supplier<Uni<V>> call) {
+    return Uni.createFrom().emitter(emitter -> this.join(key, call)
+        .whenComplete((result, failure) -> {
+          if (failure != null) {
+            emitter.fail(failure);
+          } else {
+            emitter.complete(result);
+          }
+        }));
+  }
+
+  /**
+   * Execute a blocking call, unless an identical call is already in flight, in which case the
+   * calling thread is blocked until its outcome is available. Any failure of the call, errors
+   * included, is shared with the calls that joined it, and the call is forgotten.
+   *
+   * @param key  key identifying identical calls
+   * @param call the call, only invoked if no identical call is in flight
+   * @return the result of the call
+   */
+  public V executeBlocking(final K key, final Supplier<V> call) {
+    final var flight = new CompletableFuture<V>();
+    final var existing = inFlight.putIfAbsent(key, flight);
+    if (existing != null) {
+      shared.increment();
+      return await(existing);
+    }
+
+    executed.increment();
+    try {
+      final var result = call.get();
+      inFlight.remove(key, flight);
+      flight.complete(result);
+      return result;
+    } catch (Throwable e) {
+      inFlight.remove(key, flight);
+      flight.completeExceptionally(e);
+      throw e;
+    }
+  }
+
+  private CompletableFuture<V> join(final K key, final Supplier<Uni<V>> call) {
+    final var flight = new CompletableFuture<V>();
+    final var existing = inFlight.putIfAbsent(key, flight);
+    if (existing != null) {
+      shared.increment();
+      return existing;
+    }
+
+    executed.increment();
+    Uni.createFrom().deferred(call).subscribe().with(
+        result -> {
+          inFlight.remove(key, flight);
+          flight.complete(result);
+        },
+        failure -> {
+          inFlight.remove(key, flight);
+          flight.completeExceptionally(failure);
+        });
+    return flight;
+  }
+
+  private static <V> V await(final CompletableFuture<V> flight) {
+    try {
+      return flight.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      if (e.getCause() instanceof Error) {
+        throw (Error) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  private static Counter counterOf(final String name, final String outcome,
+      final MeterRegistry registry) {
+    return Counter.builder("post_single_flight_calls")
+        .description("Calls executed, or shared with an identical call in flight")
+        .tag("flight", name)
+        .tag("outcome", outcome)
+        .register(registry);
+  }
+}
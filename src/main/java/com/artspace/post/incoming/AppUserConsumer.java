@@ -2,20 +2,25 @@ package com.artspace.post.incoming;
 
 import com.artspace.post.Author;
 import com.artspace.post.PostService;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
+import io.smallrye.mutiny.Uni;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 import javax.annotation.PostConstruct;
 import javax.enterprise.context.ApplicationScoped;
-import javax.transaction.Transactional;
-import javax.validation.ValidationException;
+import javax.validation.Validator;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.common.header.Header;
 import org.eclipse.microprofile.faulttolerance.Retry;
 import org.eclipse.microprofile.faulttolerance.Timeout;
@@ -34,9 +39,14 @@ public class AppUserConsumer {
   final Logger logger;
   final PostService postService;
   final MeterRegistry registry;
+  final Validator validator;
 
   Timer processTimer;
 
+  Timer batchTimer;
+
+  DistributionSummary batchSizeSummary;
+
   @PostConstruct
   void init() {
     this.processTimer = Timer.builder("post_consumer_appusers_latency")
@@ -45,11 +55,26 @@ public class AppUserConsumer {
         .percentilePrecision(3)
         .distributionStatisticExpiry(Duration.ofMinutes(25))
         .register(registry);
+
+    this.batchTimer = Timer.builder("post_consumer_appusers_batch_latency")
+        .description("The latency to apply a batch of AppUsers")
+        .publishPercentiles(0.5, 0.75, 0.95, 0.98, 0.99, 0.999)
+        .percentilePrecision(3)
+        .distributionStatisticExpiry(Duration.ofMinutes(25))
+        .register(registry);
+
+    this.batchSizeSummary = DistributionSummary.builder("post_consumer_appusers_batch_size")
+        .description("The number of AppUsers records received per batch")
+        .publishPercentiles(0.5, 0.75, 0.95, 0.99)
+        .distributionStatisticExpiry(Duration.ofMinutes(25))
+        .register(registry);
   }
 
   /**
-   * Consumes records from Kafka with {@link AppUserDTO}. Consumed appUsers will be persisted or
-   * updated. If the user were previously registered an update will occur.
+   * Consumes batches of records from Kafka with {@link AppUserDTO}. Consumed appUsers will be
+   * persisted or updated, with a single bulk operation per batch. If the user were previously
+   * registered an update will occur. When the same user is found more than once within a batch,
+   * only its last record will be applied.
    * <p>
    * Messages are required to have a {@code correlationId} header to identify the transaction that
    * originated this message. Failing to ship a message with this header will force the consumer to
@@ -59,22 +84,65 @@ public class AppUserConsumer {
    * received record.
    * <p>
    * Records won't be acknowledged only if a persistence error occurs. This will be considered a
-   * failure and will dirty this consumer. A Failed {@code Uni} will be returned in this case. A
+   * failure of the whole batch and will dirty this consumer. A failed {@code Uni} will be returned
+   * in this case.
+   * <p>
+   * Batches are applied without blocking the caller, which is notified by the returned {@code Uni}
+   * once the batch is persisted. A whole batch is bound by a timeout sized for a full poll of
+   * records, which can be configured by the {@code
+   * com.artspace.post.incoming.AppUserConsumer/consume/Timeout/value} property, in milliseconds.
    *
-   * @param incomingMessage A record containing a {@code AppUserDTO} to be persisted or updated
-   * @throws RecordConsumingException if the data within the message could not be persisted
+   * @param incomingMessages A batch of records containing {@code AppUserDTO} to be persisted or
+   *                         updated
+   * @return a {@link Uni} that will complete once the batch is persisted, or fail with a {@link
+   * RecordConsumingException} if the data within the batch could not be persisted
    */
   @Incoming("appusers-in")
-  @Timeout()
+  @Timeout(30_000)
   @Retry(delay = 10, maxRetries = 5)
-  @Transactional
-  public void consume(final ConsumerRecord<String, AppUserDTO> incomingMessage) {
+  public Uni<Void> consume(final ConsumerRecords<String, AppUserDTO> incomingMessages) {
+    this.batchSizeSummary.record(incomingMessages.count());
+
+    final List<IncomingAuthor> incomingAuthors = new ArrayList<>();
+    for (final var incomingMessage : incomingMessages) {
+      this.toIncomingAuthor(incomingMessage).ifPresent(incomingAuthors::add);
+    }
+
+    if (incomingAuthors.isEmpty()) {
+      return Uni.createFrom().voidItem();
+    }
+
+    final var batchStartTime = System.nanoTime();
+    final var authors = incomingAuthors.stream()
+        .map(incomingAuthor -> incomingAuthor.author)
+        .collect(Collectors.toList());
+
+    return Uni.createFrom().deferred(() -> postService.persistOrUpdateAuthors(authors))
+        .onFailure().transform(ex -> new RecordConsumingException(
+            String.format("It was not possible to Persist a batch of %s Messages",
+                incomingAuthors.size()), ex))
+        .invoke(appliedAuthors -> {
+          this.batchTimer.record(System.nanoTime() - batchStartTime, TimeUnit.NANOSECONDS);
+          incomingAuthors.forEach(incomingAuthor -> {
+            logger.debugf("[%s] AppUser with username %s processed",
+                incomingAuthor.correlationId, incomingAuthor.author.getUsername());
+            recordTimer(incomingAuthor.eventStartTime);
+          });
+
+          logger.infof("Batch of %s AppUsers processed. %s Authors updated/registered",
+              incomingAuthors.size(), appliedAuthors);
+        })
+        .replaceWithVoid();
+  }
+
+  private Optional<IncomingAuthor> toIncomingAuthor(
+      final ConsumerRecord<String, AppUserDTO> incomingMessage) {
     final var headers = incomingMessage.headers();
     final var correlationHeader = headers.headers(HEADER_CORID);
     if (!correlationHeader.iterator().hasNext()) {
       logger.errorf("Required headers not found. Ignoring Message %s",
           incomingMessage);
-      return;
+      return Optional.empty();
     }
 
     var correlation = Optional.ofNullable(correlationHeader.iterator().next())
@@ -86,7 +154,7 @@ public class AppUserConsumer {
     if (correlation.isEmpty()) {
       logger.errorf("CorrelationId header not found. Ignoring Message %s",
           incomingMessage);
-      return;
+      return Optional.empty();
     }
 
     final var correlationId = correlation.get();
@@ -94,33 +162,16 @@ public class AppUserConsumer {
     logger.debugf("[%s] New incoming AppUser message to process. %s", correlationId,
         appUser);
 
-    final var eventStartTime = incomingMessage.timestamp();
-
-    Optional<Author> optionalAuthor = Optional.empty();
-    try {
-      optionalAuthor = postService.persistOrUpdateAuthor(toEntity(appUser));
-    } catch (ValidationException e) {
+    final var author = toEntity(appUser);
+    final var violations = validator.validate(author);
+    if (!violations.isEmpty()) {
       logger.errorf(
           "[%s] Message with invalid payload. Ignoring Message. Reason %s",
-          correlationId, e);
-      return;
-    } catch (Exception ex) {
-      final var message = String.format("[%s] It was not possible to Persist Message", correlation);
-      throw new RecordConsumingException(message, ex);
-    }
-
-    if (optionalAuthor.isEmpty()) {
-      recordTimer(eventStartTime);
-      final var message = String.format("[%s] Persist process does not returned anything",
-          correlation);
-      throw new RecordConsumingException(message);
+          correlationId, violations);
+      return Optional.empty();
     }
 
-    final var savedUser = optionalAuthor.get();
-    logger.infof(
-        "[%s] AppUser with username %s processed. Author updated/registered with id %s",
-        correlationId, savedUser.getUsername(), savedUser.getId());
-    recordTimer(eventStartTime);
+    return Optional.of(new IncomingAuthor(correlationId, author, incomingMessage.timestamp()));
   }
 
   private void recordTimer(long eventStartTime) {
@@ -137,4 +188,11 @@ public class AppUserConsumer {
     return author;
   }
 
+  @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+  private static final class IncomingAuthor {
+
+    private final String correlationId;
+    private final Author author;
+    private final long eventStartTime;
+  }
 }
@@ -1,18 +1,24 @@
 package com.artspace.post.lifecycle;
 
+import com.artspace.post.data.IndexManager;
 import io.quarkus.runtime.ShutdownEvent;
 import io.quarkus.runtime.StartupEvent;
 import io.quarkus.runtime.configuration.ProfileManager;
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.event.Observes;
+import javax.enterprise.inject.Instance;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 @ApplicationScoped
+@RequiredArgsConstructor
 class ApplicationLifeCycle {
 
   private static final String APP_NAME = "POSTS";
 
+  final Instance<IndexManager> indexManager;
+
   void onStart(@Observes StartupEvent ev) {
     final StringBuilder appName = new StringBuilder("\n");
     appName
@@ -25,6 +31,10 @@ class ApplicationLifeCycle {
 
     log.info(appName.toString());
     log.info("The application "+APP_NAME+" is starting with profile " + ProfileManager.getActiveProfile());
+
+    if (indexManager.isResolvable()) {
+      indexManager.get().bootstrap();
+    }
   }
 
   void onStop(@Observes ShutdownEvent ev) {
@@ -1,5 +1,7 @@
 package com.artspace.post.outgoing;
 
+import io.smallrye.mutiny.Uni;
+
 /**
  * An emitter of data to external services/applications.
  * @param <T> The type of the data being emitted.
@@ -7,10 +9,12 @@ package com.artspace.post.outgoing;
 public interface DataEmitter<T> {
 
   /**
-   * Emit given input data, with a correlation identifier to an external service
+   * Send given input data, with a correlation identifier to an external service, waiting for the
+   * service to acknowledge it
    * @param correlationId identifier of the transaction that originated this necessity of emission
-   * @param input data to be emitted
+   * @param input data to be sent
+   * @return an {@link Uni} that will resolve once the data is acknowledged, or fail if it is not
    */
-  void emit(final String correlationId, final T input);
+  Uni<Void> send(final String correlationId, final T input);
 
 }
@@ -0,0 +1,127 @@
+package com.artspace.post.outgoing;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Records the telemetry of the messages emitted to the message broker. It is meant to be called
+ * straight from the acknowledgement callbacks, without dispatching any work to another thread.
+ * <p>
+ * The following metrics are exported:
+ * <ul>
+ *   <li>{@code post_emitter_ack_latency}: time from sending a message until its
+ *   acknowledgement</li>
+ *   <li>{@code post_emitter_nacks}: messages not acknowledged, tagged by exception type</li>
+ *   <li>{@code post_emitter_in_flight}: messages sent and not yet (n)acknowledged</li>
+ *   <li>{@code post_emitter_buffer_usage}: estimated number of messages held by the overflow
+ *   buffer, which are the in-flight messages beyond those the connector is allowed to write
+ *   concurrently</li>
+ * </ul>
+ * <p>
+ * Only one out of every {@code outgoing.telemetry.log-sample-rate} acknowledgements, and
+ * negative acknowledgements, will be logged.
+ */
+@ApplicationScoped
+class EmitterTelemetry {
+
+  @ConfigProperty(name = "outgoing.telemetry.log-sample-rate", defaultValue = "100")
+  long logSampleRate;
+
+  @ConfigProperty(name = "mp.messaging.outgoing.post-out.max-inflight-messages", defaultValue = "5")
+  long maxInflightMessages;
+
+  @Inject
+  MeterRegistry registry;
+
+  @Inject
+  Logger logger;
+
+  final AtomicLong inFlight = new AtomicLong();
+
+  final AtomicLong acks = new AtomicLong();
+
+  final AtomicLong nacks = new AtomicLong();
+
+  Timer ackLatency;
+
+  @PostConstruct
+  void init() {
+    this.ackLatency = Timer.builder("post_emitter_ack_latency")
+        .description("How long it takes for a sent message to be acknowledged by the broker")
+        .publishPercentileHistogram()
+        .register(registry);
+    Gauge.builder("post_emitter_in_flight", inFlight, AtomicLong::get)
+        .description("Number of sent messages waiting for the broker acknowledgement")
+        .register(registry);
+    Gauge.builder("post_emitter_buffer_usage", this, EmitterTelemetry::bufferedMessages)
+        .description("Estimated number of messages waiting in the emitter overflow buffer")
+        .register(registry);
+  }
+
+  /**
+   * Record a message being sent
+   *
+   * @return the instant the message was sent, to be handed back on its acknowledgement
+   */
+  long sent() {
+    this.inFlight.incrementAndGet();
+    return System.nanoTime();
+  }
+
+  /**
+   * Record a message that was refused by the emitter, and therefore won't be acknowledged
+   */
+  void refused() {
+    this.inFlight.decrementAndGet();
+  }
+
+  /**
+   * Record the acknowledgement of a message
+   *
+   * @param correlationId correlation identifier of the message
+   * @param postDto       acknowledged data
+   * @param sentAt        instant the message was sent, as returned by {@link #sent()}
+   */
+  void acked(final String correlationId, final PostDTO postDto, final long sentAt) {
+    this.inFlight.decrementAndGet();
+    this.ackLatency.record(System.nanoTime() - sentAt, TimeUnit.NANOSECONDS);
+    if (isSampled(this.acks.incrementAndGet())) {
+      logger.infof("[%s] Sent %s was acknowledged by the broker", correlationId, postDto);
+    }
+  }
+
+  /**
+   * Record the negative acknowledgement of a message
+   *
+   * @param correlationId correlation identifier of the message
+   * @param throwable     reason why the message was not acknowledged
+   */
+  void nacked(final String correlationId, final Throwable throwable) {
+    this.inFlight.decrementAndGet();
+    registry.counter("post_emitter_nacks", "exception", throwable.getClass().getSimpleName())
+        .increment();
+    if (isSampled(this.nacks.incrementAndGet())) {
+      logger.errorf("[%s] Sent message was NOT acknowledged by the broker. %s",
+          correlationId, throwable);
+    }
+  }
+
+  double bufferedMessages() {
+    return Math.max(0, this.inFlight.get() - this.maxInflightMessages);
+  }
+
+  /**
+   * The first occurrence of every sample window is logged, so rare events are never skipped
+   */
+  private boolean isSampled(final long occurrence) {
+    return this.logSampleRate <= 1 || occurrence % this.logSampleRate == 1;
+  }
+}
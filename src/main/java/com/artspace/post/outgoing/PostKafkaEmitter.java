@@ -1,6 +1,6 @@
 package com.artspace.post.outgoing;
 
-import io.smallrye.faulttolerance.api.FibonacciBackoff;
+import io.smallrye.mutiny.Uni;
 import io.smallrye.reactive.messaging.MutinyEmitter;
 import io.smallrye.reactive.messaging.kafka.OutgoingKafkaRecord;
 import java.util.Optional;
@@ -11,15 +11,10 @@ import javax.inject.Inject;
 import lombok.AccessLevel;
 import lombok.Getter;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
-import org.eclipse.microprofile.faulttolerance.Bulkhead;
-import org.eclipse.microprofile.faulttolerance.CircuitBreaker;
-import org.eclipse.microprofile.faulttolerance.Retry;
-import org.eclipse.microprofile.faulttolerance.Timeout;
 import org.eclipse.microprofile.reactive.messaging.Channel;
 import org.eclipse.microprofile.reactive.messaging.Message;
 import org.eclipse.microprofile.reactive.messaging.OnOverflow;
 import org.eclipse.microprofile.reactive.messaging.OnOverflow.Strategy;
-import org.jboss.logging.Logger;
 
 /**
  * Concrete implementation of a {@link DataEmitter} which utilizes Kafka as Message Broker
@@ -27,15 +22,18 @@ import org.jboss.logging.Logger;
  * <p>The data emitted will be done via {@link PostDTO}, which includes only the necessary
  * information that must be exposed to the external world.
  *
+ * <p>Acknowledgements of the emitted messages are recorded by the {@link EmitterTelemetry}.
  */
 @ApplicationScoped
 class PostKafkaEmitter implements DataEmitter<PostDTO> {
 
+  private static final CompletionStage<Void> COMPLETED = CompletableFuture.completedFuture(null);
+
   @Getter(AccessLevel.PROTECTED)
   @ConfigProperty(name = "outgoing.correlation.key", defaultValue = "correlationId")
   String correlationKey;
 
-  @Inject Logger logger;
+  @Inject EmitterTelemetry telemetry;
 
   @Inject
   @Channel("post-out")
@@ -44,63 +42,54 @@ class PostKafkaEmitter implements DataEmitter<PostDTO> {
 
   /**
    * {@inheritDoc}
-   **
+   * <p>
+   * Sends are not retried, leaving retries to the caller, which is aware of what was acknowledged
+   *
    * @param correlationId identifier of the transaction that originated this necessity of emission
-   * @param input data to be emitted
+   * @param input data to be sent
    * @throws IllegalArgumentException if correlationId is null or blank or input is null
    */
-  @Timeout()
-  @CircuitBreaker(
-      requestVolumeThreshold = 10,
-      delay = 500L,
-      skipOn = {IllegalArgumentException.class})
-  @Retry(
-      maxRetries = 5,
-      delay = 200,
-      abortOn = {IllegalArgumentException.class})
-  @FibonacciBackoff
-  @Bulkhead()
   @Override
-  public void emit(final String correlationId, final PostDTO input) {
+  public Uni<Void> send(final String correlationId, final PostDTO input) {
     final var corId =
         Optional.ofNullable(correlationId)
             .filter(s -> !s.isBlank())
             .orElseThrow(
                 () -> new IllegalArgumentException("CorrelationId should not be blank nor null"));
 
-    final var message =
-        Optional.ofNullable(input)
-            .map(user -> messageOf(user, corId))
-            .orElseThrow(() -> new IllegalArgumentException("Emit AppUser can not be null"));
+    final var post = Optional.ofNullable(input)
+        .orElseThrow(() -> new IllegalArgumentException("Emit AppUser can not be null"));
 
-    emitter.send(message);
+    final var acknowledgement = new CompletableFuture<Void>();
+    this.send(post, corId, acknowledgement);
+    return Uni.createFrom().completionStage(acknowledgement);
   }
 
-  private Message<PostDTO> messageOf(final PostDTO post, String correlationId) {
-    final var message = Message.of(post);
-    return OutgoingKafkaRecord.from(message)
+  /**
+   * Acknowledgements are handled straight on the connector's callback thread, as they only record
+   * telemetry and complete given future
+   */
+  private void send(final PostDTO post, final String correlationId,
+      final CompletableFuture<Void> acknowledgement) {
+    final var sentAt = telemetry.sent();
+    final var message = OutgoingKafkaRecord.from(Message.of(post))
         .withHeader(correlationKey, correlationId.getBytes())
-        .withAck(() -> handleAck(correlationId, post))
-        .withNack(throwable -> handleNack(correlationId, throwable));
-  }
-
-  private CompletableFuture<Void> handleNack(
-      String correlationId, final Throwable throwable) {
-    return CompletableFuture.runAsync(getFailureRunnable(correlationId, throwable));
-  }
-
-  private CompletionStage<Void> handleAck(String correlationId, final PostDTO postDto) {
-    return CompletableFuture.runAsync(getCompletionRunnable(correlationId, postDto));
-  }
-
-  private Runnable getCompletionRunnable(String correlationId, final PostDTO postDto) {
-    return () ->
-        logger.infof("[%s] Sent %s was acknowledged by the broker", correlationId, postDto);
-  }
+        .withAck(() -> {
+          telemetry.acked(correlationId, post, sentAt);
+          acknowledgement.complete(null);
+          return COMPLETED;
+        })
+        .withNack(throwable -> {
+          telemetry.nacked(correlationId, throwable);
+          acknowledgement.completeExceptionally(throwable);
+          return COMPLETED;
+        });
 
-  private Runnable getFailureRunnable(
-      String correlationId, final Throwable throwable) {
-    return () -> logger.errorf(
-        "[%s] Sent message was NOT acknowledged by the broker. %s", correlationId, throwable);
+    try {
+      emitter.send(message);
+    } catch (RuntimeException e) {
+      telemetry.refused();
+      throw e;
+    }
   }
 }
@@ -1,14 +1,19 @@
 package com.artspace.post.validation;
 
-import io.smallrye.common.annotation.Blocking;
 import javax.enterprise.context.ApplicationScoped;
 import javax.validation.ConstraintValidator;
 import javax.validation.ConstraintValidatorContext;
 import lombok.RequiredArgsConstructor;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 /**
  * Constraint validator to guarantee that the annotated username exists in the application and is
  * an active user.
+ * <p>
+ * Bean Validation is a synchronous process, which means this validator blocks the calling thread
+ * while the author is looked up. Authors are already verified without blocking when a post is
+ * inserted, therefore this validator is disabled by default, and will consider every username as
+ * valid. It can be enabled with the {@code post.validation.author.blocking.enabled} property.
  */
 @RequiredArgsConstructor
 @ApplicationScoped
@@ -16,10 +21,12 @@ class AuthorValidator implements ConstraintValidator<ExistsAndActive, String> {
 
   final AuthorValidatorService authorValidatorService;
 
-  @Blocking
+  @ConfigProperty(name = "post.validation.author.blocking.enabled", defaultValue = "false")
+  boolean isEnabled;
+
   @Override
   public boolean isValid(String annotatedUserName,
       final ConstraintValidatorContext constraintValidatorContext) {
-    return authorValidatorService.isAuthorValid(annotatedUserName);
+    return !isEnabled || authorValidatorService.isAuthorValid(annotatedUserName);
   }
 }
@@ -1,7 +1,11 @@
 package com.artspace.post.validation;
 
 import com.artspace.post.Author;
+import com.artspace.post.data.AuthorStatusCache;
+import com.artspace.post.data.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.util.Optional;
+import javax.annotation.PostConstruct;
 import javax.enterprise.context.ApplicationScoped;
 import lombok.RequiredArgsConstructor;
 
@@ -15,21 +19,47 @@ class AuthorValidatorService {
 
   final AuthorRepository blockingAuthorRepository;
 
+  final AuthorStatusCache authorStatusCache;
+
+  final MeterRegistry registry;
+
+  /**
+   * Concurrent validations of the same author, by its normalized username, share a single query
+   */
+  SingleFlight<String, Boolean> authorLookups;
+
+  @PostConstruct
+  void init() {
+    this.authorLookups = new SingleFlight<>("author_validation", registry);
+  }
+
   /**
    * Verifies if the author, by its username, exists and is active. Blank values will render this
    * validation to {@code false}.
+   * <p>
+   * The author status is read from the {@link AuthorStatusCache} first, reaching the repository
+   * only when the author is not cached. Concurrent validations of the same uncached author wait for
+   * a single query.
    *
    * @param username author's username
    * @return {@code true} if the author exists and is active, {@code false} otherwise
    */
   public boolean isAuthorValid(String username) {
-    Optional<Author> author = Optional.empty();
-
-    if (Optional.ofNullable(username).isPresent()) {
-      author = blockingAuthorRepository.find("username", username.toLowerCase().trim())
-          .singleResultOptional();
+    if (Optional.ofNullable(username).isEmpty()) {
+      return false;
     }
 
+    final var normalizedUsername = username.toLowerCase().trim();
+    return authorStatusCache.getIfPresent(normalizedUsername)
+        .orElseGet(() -> authorLookups.executeBlocking(normalizedUsername,
+            () -> this.findAuthorStatus(normalizedUsername)));
+  }
+
+  private boolean findAuthorStatus(final String username) {
+    final Optional<Author> author = blockingAuthorRepository.find("username", username)
+        .singleResultOptional();
+
+    author.ifPresent(value -> authorStatusCache.put(value.getUsername(), value.isActive()));
     return author.map(Author::isActive).orElse(false);
   }
 }
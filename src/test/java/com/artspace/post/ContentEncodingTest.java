@@ -0,0 +1,52 @@
+package com.artspace.post;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class ContentEncodingTest {
+
+  @ParameterizedTest
+  @CsvSource(value = {
+      "gzip, deflate|GZIP",
+      "deflate, gzip;q=0.5|DEFLATE",
+      "br, *;q=0.1|GZIP",
+      "GZIP;q=0.2, deflate;q=0.8|DEFLATE",
+      "*, gzip;q=0|DEFLATE"
+  }, delimiter = '|')
+  @DisplayName("Negotiation should choose the accepted coding with the highest quality")
+  void negotiationShouldChooseThePreferredCoding(String acceptEncoding, ContentEncoding expected) {
+    assertThat(ContentEncoding.negotiate(acceptEncoding), is(Optional.of(expected)));
+  }
+
+  @ParameterizedTest
+  @CsvSource(value = {"identity", "br", "gzip;q=0, deflate;q=0", "*;q=0", "' '"}, delimiter = '|')
+  @DisplayName("Negotiation should not choose any coding the client doesn't accept")
+  void negotiationShouldNotChooseUnacceptedCodings(String acceptEncoding) {
+    assertThat(ContentEncoding.negotiate(acceptEncoding), is(Optional.empty()));
+  }
+
+  @Test
+  @DisplayName("Gzip compressed bodies should be restored by a gzip stream")
+  void gzipCompressedBodyShouldBeRestored() throws IOException {
+    //given
+    final var body = "[{\"message\":\"hello\"}]".repeat(50).getBytes(StandardCharsets.UTF_8);
+
+    //when
+    final var compressed = ContentEncoding.GZIP.compress(body, 6);
+
+    //then
+    try (var input = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+      assertThat(input.readAllBytes(), is(body));
+    }
+  }
+}
@@ -2,17 +2,24 @@ package com.artspace.post;
 
 
 import static io.restassured.RestAssured.given;
+import static io.restassured.config.DecoderConfig.decoderConfig;
 import static javax.ws.rs.core.HttpHeaders.ACCEPT;
 import static javax.ws.rs.core.HttpHeaders.CONTENT_TYPE;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 import static javax.ws.rs.core.Response.Status.BAD_REQUEST;
 import static javax.ws.rs.core.Response.Status.CREATED;
+import static javax.ws.rs.core.Response.Status.NOT_FOUND;
+import static javax.ws.rs.core.Response.Status.NOT_MODIFIED;
 import static javax.ws.rs.core.Response.Status.OK;
+import static javax.ws.rs.core.Response.Status.PRECONDITION_FAILED;
 import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
 
 import com.artspace.post.data.PostRepository;
 import com.github.javafaker.Faker;
 import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.RestAssured;
 import io.smallrye.mutiny.Uni;
 import java.time.Duration;
 import java.util.ArrayList;
@@ -20,6 +27,7 @@ import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import javax.inject.Inject;
+import javax.ws.rs.core.HttpHeaders;
 import org.bson.types.ObjectId;
 import org.hamcrest.Matchers;
 import org.hamcrest.core.Is;
@@ -164,7 +172,199 @@ class PostResourceTest {
         .body("author", Is.is(samplePost.getAuthor()))
         .body("message", Is.is(samplePost.getMessage()))
         .body("enabled", Is.is(true))
-        .body("creationTime", notNullValue());
+        .body("creationTime", notNullValue())
+        .header(HttpHeaders.ETAG, "\"0\"");
+  }
+
+  @Test
+  @DisplayName("A batch of posts should report the outcome of each post in order")
+  void savePostsShouldReportOutcomeOfEachPost() {
+    final var sampleAuthor = this.postService.registerAuthor(this.createSampleAuthor()).await()
+        .atMost(FIVE_SECONDS);
+
+    final var validPost = this.createSamplePost();
+    validPost.setAuthor(sampleAuthor.getUsername());
+
+    final var invalidPost = this.createSamplePost();
+    invalidPost.setAuthor(sampleAuthor.getUsername());
+    invalidPost.setMessage("");
+
+    final var unknownAuthorPost = this.createSamplePost();
+
+    given()
+        .header(CONTENT_TYPE, JSON)
+        .header(ACCEPT, JSON)
+        .header(PostResource.CORRELATION_HEADER, createSampleCorrelationId())
+        .body(List.of(validPost, invalidPost, unknownAuthorPost))
+        .when()
+        .post("/api/posts/batch")
+        .then()
+        .statusCode(OK.getStatusCode())
+        .body("size()", Is.is(3))
+        .body("status", Is.is(List.of("CREATED", "INVALID", "REJECTED")))
+        .body("[0].id", notNullValue())
+        .body("[1].id", nullValue());
+  }
+
+  @Test
+  @DisplayName("An empty batch of posts should not be processed")
+  void savePostsShouldNotAcceptEmptyBatches() {
+    given()
+        .header(CONTENT_TYPE, JSON)
+        .header(ACCEPT, JSON)
+        .header(PostResource.CORRELATION_HEADER, createSampleCorrelationId())
+        .body(List.of())
+        .when()
+        .post("/api/posts/batch")
+        .then()
+        .statusCode(BAD_REQUEST.getStatusCode());
+  }
+
+  @Test
+  @DisplayName("Look up posts should report missing and invalid ids, keeping the request order")
+  void lookupPostsShouldReportMissingAndInvalidIds() {
+    final var posts = samplePosts(2);
+    final var first = posts.get(0).getId().toString();
+    final var second = posts.get(1).getId().toString();
+    final var missing = new ObjectId().toString();
+
+    given()
+        .header(CONTENT_TYPE, JSON)
+        .header(ACCEPT, JSON)
+        .header(PostResource.CORRELATION_HEADER, createSampleCorrelationId())
+        .body(List.of(second, "not-an-id", missing, first, second))
+        .when()
+        .post("/api/posts/lookup")
+        .then()
+        .statusCode(OK.getStatusCode())
+        .body("items.id", Is.is(List.of(second, first)))
+        .body("missing", Is.is(List.of(missing)))
+        .body("invalid", Is.is(List.of("not-an-id")));
+  }
+
+  @Test
+  @DisplayName("An empty list of ids should not be looked up")
+  void lookupPostsShouldNotAcceptEmptyIds() {
+    given()
+        .header(CONTENT_TYPE, JSON)
+        .header(ACCEPT, JSON)
+        .header(PostResource.CORRELATION_HEADER, createSampleCorrelationId())
+        .body(List.of())
+        .when()
+        .post("/api/posts/lookup")
+        .then()
+        .statusCode(BAD_REQUEST.getStatusCode());
+  }
+
+  @Test
+  @DisplayName("Get post should not match a tag taken before its author became inactive")
+  void getPostShouldNotMatchTagOnceAuthorIsInactive() {
+    final var sampleAuthor = this.postService.registerAuthor(this.createSampleAuthor()).await()
+        .atMost(FIVE_SECONDS);
+
+    final var correlationId = createSampleCorrelationId();
+
+    final var samplePost = this.createSamplePost();
+    samplePost.setAuthor(sampleAuthor.getUsername());
+    var persistedPost = this.postService.insertPost(samplePost, correlationId)
+        .call(() -> this.postService.updateAuthor(sampleAuthor.withActive(false)))
+        .await().atMost(FIVE_SECONDS);
+
+    given()
+        .header(CONTENT_TYPE, JSON)
+        .header(ACCEPT, JSON)
+        .header(HttpHeaders.IF_NONE_MATCH, "\"0\"")
+        .header(PostResource.CORRELATION_HEADER, correlationId)
+        .pathParam("postId", persistedPost.getId().toString())
+        .when()
+        .get("/api/posts/{postId}")
+        .then()
+        .statusCode(OK.getStatusCode())
+        .header(HttpHeaders.ETAG, "\"0-inactive\"");
+  }
+
+  @Test
+  @DisplayName("Patch post should apply changes if post is at the version required by If-Match")
+  void patchPostShouldApplyChangesIfVersionMatches() {
+    final var sampleAuthor = this.postService.registerAuthor(this.createSampleAuthor()).await()
+        .atMost(FIVE_SECONDS);
+
+    final var samplePost = this.createSamplePost();
+    samplePost.setAuthor(sampleAuthor.getUsername());
+    var persistedPost = this.postService.insertPost(samplePost, createSampleCorrelationId())
+        .await().atMost(FIVE_SECONDS);
+
+    given()
+        .header(CONTENT_TYPE, JSON)
+        .header(ACCEPT, JSON)
+        .header(HttpHeaders.IF_MATCH, "\"0\"")
+        .header(PostResource.CORRELATION_HEADER, createSampleCorrelationId())
+        .pathParam("postId", persistedPost.getId().toString())
+        .body(new PostPatch(null, false))
+        .when()
+        .patch("/api/posts/{postId}")
+        .then()
+        .statusCode(OK.getStatusCode())
+        .header(HttpHeaders.ETAG, "\"1\"")
+        .body("message", Is.is(samplePost.getMessage()))
+        .body("enabled", Is.is(false))
+        .body("version", Is.is(1));
+  }
+
+  @Test
+  @DisplayName("Patch post should fail if the patch changes nothing")
+  void patchPostShouldFailIfPatchIsEmpty() {
+    final var post = samplePosts(1).get(0);
+
+    given()
+        .header(CONTENT_TYPE, JSON)
+        .header(ACCEPT, JSON)
+        .header(PostResource.CORRELATION_HEADER, createSampleCorrelationId())
+        .pathParam("postId", post.getId().toString())
+        .body("{}")
+        .when()
+        .patch("/api/posts/{postId}")
+        .then()
+        .statusCode(BAD_REQUEST.getStatusCode());
+  }
+
+  @Test
+  @DisplayName("Patch post should fail if post is no longer at the version required by If-Match")
+  void patchPostShouldFailIfVersionDoesNotMatch() {
+    final var sampleAuthor = this.postService.registerAuthor(this.createSampleAuthor()).await()
+        .atMost(FIVE_SECONDS);
+
+    final var samplePost = this.createSamplePost();
+    samplePost.setAuthor(sampleAuthor.getUsername());
+    var persistedPost = this.postService.insertPost(samplePost, createSampleCorrelationId())
+        .await().atMost(FIVE_SECONDS);
+
+    given()
+        .header(CONTENT_TYPE, JSON)
+        .header(ACCEPT, JSON)
+        .header(HttpHeaders.IF_MATCH, "\"3\"")
+        .header(PostResource.CORRELATION_HEADER, createSampleCorrelationId())
+        .pathParam("postId", persistedPost.getId().toString())
+        .body(new PostPatch("new message", null))
+        .when()
+        .patch("/api/posts/{postId}")
+        .then()
+        .statusCode(PRECONDITION_FAILED.getStatusCode());
+  }
+
+  @Test
+  @DisplayName("Patch post should return not found if post does not exist")
+  void patchPostShouldReturnNotFoundIfPostDoesNotExist() {
+    given()
+        .header(CONTENT_TYPE, JSON)
+        .header(ACCEPT, JSON)
+        .header(PostResource.CORRELATION_HEADER, createSampleCorrelationId())
+        .pathParam("postId", new ObjectId().toString())
+        .body(new PostPatch("new message", null))
+        .when()
+        .patch("/api/posts/{postId}")
+        .then()
+        .statusCode(NOT_FOUND.getStatusCode());
   }
 
   @Test
@@ -341,7 +541,8 @@ class PostResourceTest {
         .await()
         .atMost(FIVE_SECONDS);
 
-    this.postService.updatePost(post.withEnabled(false), createSampleCorrelationId());
+    this.postService.updatePost(post.withEnabled(false), createSampleCorrelationId()).await()
+        .atMost(FIVE_SECONDS);
 
     given()
         .header(CONTENT_TYPE, JSON)
@@ -356,6 +557,27 @@ class PostResourceTest {
         .body("size()", Is.is(2));
   }
 
+  @Test
+  @DisplayName("Query Posts should find the same posts whatever the casing of the author")
+  void queryPostsShouldIgnoreAuthorCasing() {
+    final var firstAuthor = samplePosts(1).get(0).getAuthor();
+    final var secondAuthor = samplePosts(1).get(0).getAuthor();
+
+    for (var author : List.of(firstAuthor.toUpperCase(), firstAuthor, secondAuthor,
+        secondAuthor.toUpperCase())) {
+      given()
+          .header(ACCEPT, JSON)
+          .header(PostResource.CORRELATION_HEADER, createSampleCorrelationId())
+          .queryParam("author", author)
+          .when()
+          .get("/api/posts")
+          .then()
+          .statusCode(OK.getStatusCode())
+          .body("size()", Is.is(1))
+          .body("[0].author", Is.is(author.toLowerCase()));
+    }
+  }
+
   @Test
   @DisplayName("Query Posts should paginate results accordingly")
   void queryPostsShouldPaginateResults() {
@@ -394,6 +616,64 @@ class PostResourceTest {
         .body("size()", Is.is(1));
   }
 
+  @Test
+  @DisplayName("Query Posts should resume from the cursor of the previous page")
+  void queryPostsShouldResumeFromCursor() {
+    final var sampleAuthor = this.postService.registerAuthor(this.createSampleAuthor()).await()
+        .atMost(FIVE_SECONDS);
+
+    final var uniPosts = new ArrayList<Uni<Post>>();
+    for (int index = 0; index < 5; index++) {
+      final var enabledPost = this.createSamplePost();
+      enabledPost.setAuthor(sampleAuthor.getUsername());
+      uniPosts.add(this.postService.insertPost(enabledPost, createSampleCorrelationId()));
+    }
+
+    Uni.combine().all().unis(uniPosts).combinedWith(List::size).await().atMost(FIVE_SECONDS);
+
+    final var firstPage = given()
+        .header(CONTENT_TYPE, JSON)
+        .header(ACCEPT, JSON)
+        .header(PostResource.CORRELATION_HEADER, createSampleCorrelationId())
+        .pathParam("username", sampleAuthor.getUsername())
+        .when()
+        .get("/api/posts?author={username}&size=3")
+        .then()
+        .statusCode(OK.getStatusCode())
+        .header(PostResource.NEXT_CURSOR_HEADER, notNullValue())
+        .body("size()", Is.is(3))
+        .extract();
+
+    final List<String> firstPageIds = firstPage.path("id");
+
+    given()
+        .header(CONTENT_TYPE, JSON)
+        .header(ACCEPT, JSON)
+        .header(PostResource.CORRELATION_HEADER, createSampleCorrelationId())
+        .pathParam("username", sampleAuthor.getUsername())
+        .pathParam("cursor", firstPage.header(PostResource.NEXT_CURSOR_HEADER))
+        .when()
+        .get("/api/posts?author={username}&size=3&cursor={cursor}")
+        .then()
+        .statusCode(OK.getStatusCode())
+        .header(PostResource.NEXT_CURSOR_HEADER, nullValue())
+        .body("size()", Is.is(2))
+        .body("id", Matchers.everyItem(Matchers.not(Matchers.in(firstPageIds))));
+  }
+
+  @Test
+  @DisplayName("Query Posts should fail if cursor is invalid")
+  void queryPostsShouldFailWithInvalidCursor() {
+    given()
+        .header(CONTENT_TYPE, JSON)
+        .header(ACCEPT, JSON)
+        .header(PostResource.CORRELATION_HEADER, createSampleCorrelationId())
+        .when()
+        .get("/api/posts?cursor=not-a-cursor")
+        .then()
+        .statusCode(BAD_REQUEST.getStatusCode());
+  }
+
   @Test
   @DisplayName("Query Posts should query by page if ids are empty")
   void queryPostsShouldQueryAllPostsIfEmptyIds() {
@@ -431,6 +711,233 @@ class PostResourceTest {
         .body("size()", Is.is(2));
   }
 
+  @Test
+  @DisplayName("Get post by id should return Not Modified if its ETag still matches")
+  void getPostByIdShouldReturnNotModifiedIfETagMatches() {
+    final var post = samplePosts(1).get(0);
+
+    given()
+        .header(ACCEPT, JSON)
+        .header(HttpHeaders.IF_NONE_MATCH, "W/\"1\", \"0\"")
+        .header(PostResource.CORRELATION_HEADER, createSampleCorrelationId())
+        .pathParam("postId", post.getId().toString())
+        .when()
+        .get("/api/posts/{postId}")
+        .then()
+        .statusCode(NOT_MODIFIED.getStatusCode())
+        .header(HttpHeaders.ETAG, "\"0\"")
+        .header(HttpHeaders.CACHE_CONTROL, "no-cache");
+  }
+
+  @Test
+  @DisplayName("Query Posts should return Not Modified if the page ETag still matches")
+  void queryPostsShouldReturnNotModifiedIfETagMatches() {
+    final var posts = samplePosts(3);
+    final var ids = posts.stream().map(Post::getId).map(ObjectId::toString)
+        .collect(Collectors.joining(","));
+
+    final var etag = given()
+        .header(ACCEPT, JSON)
+        .header(PostResource.CORRELATION_HEADER, createSampleCorrelationId())
+        .pathParam("ids", ids)
+        .when()
+        .get("/api/posts?ids={ids}")
+        .then()
+        .statusCode(OK.getStatusCode())
+        .extract().header(HttpHeaders.ETAG);
+
+    given()
+        .header(ACCEPT, JSON)
+        .header(HttpHeaders.IF_NONE_MATCH, etag)
+        .header(PostResource.CORRELATION_HEADER, createSampleCorrelationId())
+        .pathParam("ids", ids)
+        .when()
+        .get("/api/posts?ids={ids}")
+        .then()
+        .statusCode(NOT_MODIFIED.getStatusCode())
+        .header(HttpHeaders.ETAG, etag);
+  }
+
+  @Test
+  @DisplayName("Query Posts should wrap pages along with the author's number of posts")
+  void queryPostsShouldWrapPagesWithTotal() {
+    final var sampleAuthor = this.postService.registerAuthor(this.createSampleAuthor()).await()
+        .atMost(FIVE_SECONDS);
+
+    final var posts = new ArrayList<Post>();
+    for (int index = 0; index < 5; index++) {
+      final var post = this.createSamplePost();
+      post.setAuthor(sampleAuthor.getUsername());
+      posts.add(this.postService.insertPost(post, createSampleCorrelationId())
+          .await().atMost(FIVE_SECONDS));
+    }
+    this.postService.updatePost(posts.get(0).getId(), new PostPatch(null, false), null,
+        createSampleCorrelationId()).await().atMost(FIVE_SECONDS);
+
+    given()
+        .header(ACCEPT, JSON)
+        .header(PostResource.CORRELATION_HEADER, createSampleCorrelationId())
+        .pathParam("author", sampleAuthor.getUsername())
+        .when()
+        .get("/api/posts?author={author}&index=1&size=3&envelope=true")
+        .then()
+        .statusCode(OK.getStatusCode())
+        .body("items.size()", Is.is(1))
+        .body("total", Is.is(4))
+        .body("pageIndex", Is.is(1))
+        .body("pageSize", Is.is(3))
+        .body("pageCount", Is.is(2));
+  }
+
+  @Test
+  @DisplayName("Query Posts should fail if an envelope is requested for a query by status only")
+  void queryPostsShouldFailWithEnvelopeWithoutAuthor() {
+    given()
+        .header(ACCEPT, JSON)
+        .header(PostResource.CORRELATION_HEADER, createSampleCorrelationId())
+        .when()
+        .get("/api/posts?status=enabled&envelope=true")
+        .then()
+        .statusCode(BAD_REQUEST.getStatusCode());
+  }
+
+  @Test
+  @DisplayName("Query Posts should serialize only the projected fields of each post")
+  void queryPostsShouldProjectFields() {
+    final var posts = samplePosts(2);
+
+    given()
+        .header(ACCEPT, JSON)
+        .header(PostResource.CORRELATION_HEADER, createSampleCorrelationId())
+        .pathParam("author", posts.get(0).getAuthor())
+        .when()
+        .get("/api/posts?author={author}&fields=id")
+        .then()
+        .statusCode(OK.getStatusCode())
+        .header(HttpHeaders.ETAG, notNullValue())
+        .body("size()", Is.is(1))
+        .body("[0].size()", Is.is(1))
+        .body("[0].id", Is.is(posts.get(0).getId().toString()));
+
+    final var ids = posts.stream().map(Post::getId).map(ObjectId::toString)
+        .collect(Collectors.joining(","));
+    given()
+        .header(ACCEPT, JSON)
+        .header(PostResource.CORRELATION_HEADER, createSampleCorrelationId())
+        .pathParam("ids", ids)
+        .when()
+        .get("/api/posts?ids={ids}&fields=message,creationTime")
+        .then()
+        .statusCode(OK.getStatusCode())
+        .body("size()", Is.is(2))
+        .body("[1].size()", Is.is(3))
+        .body("[1].message", Is.is(posts.get(1).getMessage()))
+        .body("[1].author", nullValue());
+  }
+
+  @Test
+  @DisplayName("Query Posts should fail with unknown fields")
+  void queryPostsShouldFailWithUnknownFields() {
+    given()
+        .header(ACCEPT, JSON)
+        .header(PostResource.CORRELATION_HEADER, createSampleCorrelationId())
+        .when()
+        .get("/api/posts?status=enabled&fields=id,secret")
+        .then()
+        .statusCode(BAD_REQUEST.getStatusCode());
+  }
+
+  @Test
+  @DisplayName("Query Posts should compress large pages with the accepted coding")
+  void queryPostsShouldCompressLargePages() {
+    final var ids = samplePosts(10).stream().map(Post::getId).map(ObjectId::toString)
+        .collect(Collectors.joining(","));
+
+    given()
+        .config(RestAssured.config().decoderConfig(decoderConfig().noContentDecoders()))
+        .header(ACCEPT, JSON)
+        .header(HttpHeaders.ACCEPT_ENCODING, "deflate;q=0.5, gzip")
+        .header(PostResource.CORRELATION_HEADER, createSampleCorrelationId())
+        .pathParam("ids", ids)
+        .when()
+        .get("/api/posts?ids={ids}")
+        .then()
+        .statusCode(OK.getStatusCode())
+        .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+        .header(HttpHeaders.VARY, Matchers.containsString(HttpHeaders.ACCEPT_ENCODING));
+  }
+
+  @Test
+  @DisplayName("Query Posts should tag compressed pages by their coding, and match them later")
+  void queryPostsShouldTagCompressedPagesByCoding() {
+    final var ids = samplePosts(10).stream().map(Post::getId).map(ObjectId::toString)
+        .collect(Collectors.joining(","));
+
+    final var etag = given()
+        .config(RestAssured.config().decoderConfig(decoderConfig().noContentDecoders()))
+        .header(ACCEPT, JSON)
+        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+        .header(PostResource.CORRELATION_HEADER, createSampleCorrelationId())
+        .pathParam("ids", ids)
+        .when()
+        .get("/api/posts?ids={ids}")
+        .then()
+        .statusCode(OK.getStatusCode())
+        .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+        .header(HttpHeaders.ETAG, Matchers.endsWith("-gzip\""))
+        .extract().header(HttpHeaders.ETAG);
+
+    given()
+        .header(ACCEPT, JSON)
+        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+        .header(HttpHeaders.IF_NONE_MATCH, etag)
+        .header(PostResource.CORRELATION_HEADER, createSampleCorrelationId())
+        .pathParam("ids", ids)
+        .when()
+        .get("/api/posts?ids={ids}")
+        .then()
+        .statusCode(NOT_MODIFIED.getStatusCode())
+        .header(HttpHeaders.ETAG, etag);
+  }
+
+  @Test
+  @DisplayName("Query Posts should not compress pages below the size threshold")
+  void queryPostsShouldNotCompressSmallPages() {
+    final var post = samplePosts(1).get(0);
+
+    given()
+        .config(RestAssured.config().decoderConfig(decoderConfig().noContentDecoders()))
+        .header(ACCEPT, JSON)
+        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+        .header(PostResource.CORRELATION_HEADER, createSampleCorrelationId())
+        .pathParam("ids", post.getId().toString())
+        .when()
+        .get("/api/posts?ids={ids}")
+        .then()
+        .statusCode(OK.getStatusCode())
+        .header(HttpHeaders.CONTENT_ENCODING, nullValue())
+        .body("size()", Is.is(1));
+  }
+
+  @Test
+  @DisplayName("Query Posts should stream one post per line as newline delimited json")
+  void queryPostsShouldStreamNdjson() {
+    samplePosts(3);
+
+    final var body = given()
+        .header(ACCEPT, PostResource.APPLICATION_NDJSON)
+        .header(PostResource.CORRELATION_HEADER, createSampleCorrelationId())
+        .when()
+        .get("/api/posts?status=all&size=10")
+        .then()
+        .statusCode(OK.getStatusCode())
+        .header(CONTENT_TYPE, Matchers.startsWith(PostResource.APPLICATION_NDJSON))
+        .extract()
+        .asString();
+
+    assertThat(body.lines().filter(line -> !line.isBlank()).count(), Is.is(3L));
+  }
+
   private Author createSampleAuthor() {
     var author = new Author();
     author.setUsername(FAKER.name().username());
@@ -481,7 +988,9 @@ class PostResourceTest {
           .await()
           .atMost(FIVE_SECONDS);
 
-      this.postService.updatePost(post.withEnabled(!mainStatus), createSampleCorrelationId());
+      this.postService.updatePost(post.withEnabled(!mainStatus), createSampleCorrelationId())
+          .await()
+          .atMost(FIVE_SECONDS);
     }
 
     final var sampleAuthor = this.postService.registerAuthor(this.createSampleAuthor()).await()
@@ -496,6 +1005,8 @@ class PostResourceTest {
 
     return this.postService
         .updatePost(post.withEnabled(mainStatus), createSampleCorrelationId())
+        .await()
+        .atMost(FIVE_SECONDS)
         .map(Post::getId).get();
   }
 }
\ No newline at end of file
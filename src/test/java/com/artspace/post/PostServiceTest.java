@@ -4,25 +4,33 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.artspace.post.PostBatchResult.Status;
+import com.artspace.post.data.OutboxEvent;
+import com.artspace.post.data.PostCounter;
 import com.artspace.post.data.PostDataAccess;
-import com.artspace.post.outgoing.DataEmitter;
-import com.artspace.post.outgoing.PostDTO;
 import com.github.javafaker.Faker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.smallrye.mutiny.Uni;
 import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.bson.types.ObjectId;
 import org.junit.jupiter.api.BeforeAll;
@@ -34,7 +42,8 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EmptySource;
 import org.junit.jupiter.params.provider.NullSource;
 import org.junit.jupiter.params.provider.ValueSource;
-import org.mapstruct.factory.Mappers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -46,10 +55,12 @@ class PostServiceTest {
   @Mock
   PostDataAccess postDataAccess;
 
-  @Mock
-  DataEmitter<PostDTO> emitter;
+  @Captor
+  ArgumentCaptor<Function<Post, OutboxEvent>> eventCaptor;
+
+  PostCache postCache;
 
-  PostMapper postMapper = Mappers.getMapper(PostMapper.class);
+  TimelineCache timelineCache;
 
   PostService postService;
 
@@ -57,7 +68,20 @@ class PostServiceTest {
 
   @BeforeEach
   public void setup() {
-    this.postService = new PostService(postDataAccess, postMapper, emitter);
+    this.postCache = new PostCache();
+    this.postCache.maximumSize = 100;
+    this.postCache.expireAfterWrite = Duration.ofMinutes(1);
+    this.postCache.registry = new SimpleMeterRegistry();
+    this.postCache.init();
+
+    this.timelineCache = new TimelineCache();
+    this.timelineCache.isEnabled = true;
+    this.timelineCache.maximumBytes = 1024;
+    this.timelineCache.maximumPage = 3;
+    this.timelineCache.registry = new SimpleMeterRegistry();
+    this.timelineCache.init();
+
+    this.postService = new PostService(postDataAccess, postCache, timelineCache);
   }
 
   @BeforeAll
@@ -131,42 +155,29 @@ class PostServiceTest {
   }
 
   @Test
-  @DisplayName("PersistOrUpdate should persist if author is new")
-  void persistOrUpdateAuthorShouldPersistIfIsNew() {
+  @DisplayName("PersistOrUpdate of many authors should keep only the last author by username")
+  @SuppressWarnings("unchecked")
+  void persistOrUpdateAuthorsShouldKeepLastAuthor() {
     //given
-    var sample = getSampleAuthor();
-    when(postDataAccess.findAuthorByUsername(anyString())).thenReturn(
-        Uni.createFrom().item(Optional.empty()));
+    var first = getSampleAuthor();
+    first.setUsername("John.Doe");
+    var last = getSampleAuthor();
+    last.setUsername("john.doe ");
+    last.setActive(false);
+    var another = getSampleAuthor();
 
-    when(postDataAccess.persist(any(Author.class))).thenReturn(
-        Uni.createFrom().item(sample));
+    when(postDataAccess.upsert(anyList())).thenAnswer(
+        a -> Uni.createFrom().item((long) ((List<Author>) a.getArguments()[0]).size()));
 
     //when
-    final var result = this.postService.persistOrUpdateAuthor(sample);
+    final var result = this.postService.persistOrUpdateAuthors(List.of(first, another, last))
+        .await().atMost(ONE_SECOND);
 
     //then
-    assertTrue(result.isPresent());
-    assertThat(result.get(), is(sample));
-  }
-
-  @Test
-  @DisplayName("PersistOrUpdate should merge if author is already persisted")
-  void persistOrUpdateAuthorShouldMergeIfAuthorExists() {
-    //given
-    var sample = getSampleAuthor();
-    final var optionalAuthor = Optional.of(sample);
-    when(postDataAccess.findAuthorByUsername(anyString())).thenReturn(
-        Uni.createFrom().item(optionalAuthor));
-
-    when(postDataAccess.merge(any(Author.class))).thenReturn(
-        Uni.createFrom().item(optionalAuthor));
-
-    //when
-    final var result = this.postService.persistOrUpdateAuthor(sample);
-
-    //then
-    assertTrue(result.isPresent());
-    assertThat(result.get(), is(sample));
+    assertThat(result, is(2L));
+    verify(postDataAccess).upsert(argThat((List<Author> authors) -> authors.size() == 2
+        && authors.get(0).getUsername().equals("john.doe")
+        && !authors.get(0).isActive()));
   }
 
   @ParameterizedTest
@@ -199,41 +210,183 @@ class PostServiceTest {
   }
 
   @Test
-  @DisplayName("InsertPost should notify the persistence")
-  void persistPostShouldEmit() {
+  @DisplayName("CountPosts should read the counter of the normalized author")
+  void countPostsShouldReadCounterOfNormalizedAuthor() {
+    //given
+    final var counter = PostCounter.empty("john.doe");
+    counter.setTotal(3L);
+    when(this.postDataAccess.isAuthorActive("john.doe")).thenReturn(Uni.createFrom().item(true));
+    when(this.postDataAccess.findPostCounter("john.doe")).thenReturn(
+        Uni.createFrom().item(counter));
+
+    //when
+    final var result = this.postService.countPosts(" John.Doe ", "all").await()
+        .atMost(ONE_SECOND);
+
+    //then
+    assertThat(result, is(3L));
+  }
+
+  @Test
+  @DisplayName("InsertPost should store the post under its normalized author")
+  void insertPostShouldNormalizeAuthor() {
+    //given
+    var post = getSamplePost();
+    post.setAuthor("John.Doe ");
+    when(postDataAccess.isAuthorActive("john.doe")).thenReturn(
+        Uni.createFrom().item(true));
+    when(postDataAccess.persist(any(Post.class), any())).thenAnswer(
+        a -> Uni.createFrom().item(a.getArgument(0)));
+
+    //when
+    final var persisted = this.postService.insertPost(post, createSampleCorrelationId()).await()
+        .atMost(ONE_SECOND);
+
+    //then
+    assertEquals("john.doe", persisted.getAuthor());
+  }
+
+  @Test
+  @DisplayName("InsertPost should store a created event along with the post")
+  void persistPostShouldStoreCreatedEvent() {
     //given
     var post = getSamplePost();
-    when(postDataAccess.persist(any(Post.class))).thenReturn(
-        Uni.createFrom().item(post));
+    when(postDataAccess.isAuthorActive(anyString())).thenReturn(
+        Uni.createFrom().item(true));
+
+    when(postDataAccess.persist(any(Post.class), any())).thenAnswer(
+        a -> Uni.createFrom().item(a.getArgument(0)));
 
     var correlationId = createSampleCorrelationId();
 
     //when
-    this.postService.insertPost(post, correlationId).await().atMost(ONE_SECOND);
+    final var persisted = this.postService.insertPost(post, correlationId).await()
+        .atMost(ONE_SECOND);
 
     //then
-    verify(this.emitter, times(1)).emit(eq(correlationId), any(PostDTO.class));
+    verify(this.postDataAccess, times(1)).persist(any(Post.class), eventCaptor.capture());
+    final var event = eventCaptor.getValue().apply(persisted);
+    assertEquals("CREATED", event.getAction());
+    assertEquals(correlationId, event.getCorrelationId());
   }
 
   @Test
-  @DisplayName("UpdatePost should notify the update")
-  void updatePostShouldEmit() {
+  @DisplayName("InsertPost should fail if author is not active")
+  void persistPostShouldFailIfAuthorIsInactive() {
     //given
     var post = getSamplePost();
-    post.setId(new ObjectId());
-    when(postDataAccess.findById(any(ObjectId.class))).thenReturn(
-        Uni.createFrom().item(Optional.of(post)));
+    when(postDataAccess.isAuthorActive(anyString())).thenReturn(
+        Uni.createFrom().item(false));
+
+    var correlationId = createSampleCorrelationId();
+
+    //when
+    final var insertion = this.postService.insertPost(post, correlationId);
+
+    //then
+    assertThrows(InactiveAuthorException.class, () -> insertion.await().atMost(ONE_SECOND));
+    verify(this.postDataAccess, never()).persist(any(Post.class), any());
+  }
+
+  @Test
+  @DisplayName("InsertPosts should persist posts of active authors along with created events")
+  void insertPostsShouldPersistPostsOfActiveAuthors() {
+    //given
+    final var activePost = getSamplePost();
+    activePost.setAuthor("John.Doe");
+    final var inactivePost = getSamplePost();
+    inactivePost.setAuthor("jane.doe");
+
+    when(postDataAccess.findActiveAuthors(Set.of("john.doe", "jane.doe"))).thenReturn(
+        Uni.createFrom().item(Set.of("john.doe")));
+    when(postDataAccess.persist(anyList(), any())).thenAnswer(a -> {
+      final List<Post> posts = a.getArgument(0);
+      posts.forEach(post -> post.setId(new ObjectId()));
+      return Uni.createFrom().item(posts);
+    });
+
+    var correlationId = createSampleCorrelationId();
+
+    //when
+    final var results = this.postService
+        .insertPosts(List.of(inactivePost, activePost), correlationId)
+        .await()
+        .atMost(ONE_SECOND);
+
+    //then
+    assertEquals(Status.REJECTED, results.get(0).getStatus());
+    assertEquals(Status.CREATED, results.get(1).getStatus());
+    verify(this.postDataAccess, times(1))
+        .persist(argThat((List<Post> posts) -> posts.size() == 1
+            && "john.doe".equals(posts.get(0).getAuthor())), eventCaptor.capture());
+    assertEquals("CREATED", eventCaptor.getValue().apply(activePost).getAction());
+  }
+
+  @Test
+  @DisplayName("InsertPosts should report posts the repository failed to persist")
+  void insertPostsShouldReportFailedPosts() {
+    //given
+    final var post = getSamplePost();
+    post.setAuthor("john.doe");
+
+    when(postDataAccess.findActiveAuthors(Set.of("john.doe"))).thenReturn(
+        Uni.createFrom().item(Set.of("john.doe")));
+    when(postDataAccess.persist(anyList(), any())).thenReturn(
+        Uni.createFrom().item(Collections.emptyList()));
 
-    when(postDataAccess.merge(post)).thenReturn(
+    //when
+    final var results = this.postService
+        .insertPosts(List.of(post), createSampleCorrelationId())
+        .await()
+        .atMost(ONE_SECOND);
+
+    //then
+    assertEquals(Status.FAILED, results.get(0).getStatus());
+  }
+
+  @Test
+  @DisplayName("UpdatePost should store an updated event along with the post")
+  void updatePostShouldStoreUpdatedEvent() {
+    //given
+    var post = getSamplePost();
+    post.setId(new ObjectId());
+    when(postDataAccess.update(any(ObjectId.class), any(PostPatch.class), any(), any())).thenReturn(
         Uni.createFrom().item(Optional.of(post)));
 
     var correlationId = createSampleCorrelationId();
 
     //when
-    this.postService.updatePost(post, correlationId);
+    this.postService.updatePost(post, correlationId).await().atMost(ONE_SECOND);
 
     //then
-    verify(this.emitter, times(1)).emit(eq(correlationId), any(PostDTO.class));
+    verify(this.postDataAccess, times(1))
+        .update(any(ObjectId.class), any(PostPatch.class), any(), eventCaptor.capture());
+    final var event = eventCaptor.getValue().apply(post);
+    assertEquals("UPDATED", event.getAction());
+    assertEquals(correlationId, event.getCorrelationId());
+  }
+
+  @Test
+  @DisplayName("Update Post should fail if post is not at the expected version")
+  void updatePostShouldFailIfVersionDoesNotMatch() {
+    //given
+    var post = getSamplePost();
+    post.setId(new ObjectId());
+    when(postDataAccess.update(any(ObjectId.class), any(PostPatch.class), any(), any()))
+        .thenReturn(Uni.createFrom().item(Optional.empty()));
+    when(postDataAccess.existsById(any(ObjectId.class))).thenReturn(
+        Uni.createFrom().item(true));
+
+    final var patch = new PostPatch("new message", null);
+    final var updatePost = this.postService
+        .updatePost(post.getId(), patch, 2L, createSampleCorrelationId());
+
+    //when
+    final var thrown = assertThrows(PostVersionConflictException.class,
+        () -> updatePost.await().atMost(ONE_SECOND));
+
+    //then
+    assertTrue(thrown.getMessage().contains(post.getId().toString()));
   }
 
   @Test
@@ -269,6 +422,100 @@ class PostServiceTest {
   }
 
 
+  @Test
+  @DisplayName("Lookup should fetch distinct ids once, and report the invalid and missing ones")
+  void lookupPostsShouldReportInvalidAndMissingIds() {
+    //given
+    final var samplePost = getSamplePost();
+    samplePost.setId(new ObjectId());
+    final var foundId = samplePost.getId().toHexString();
+    final var missingId = new ObjectId().toHexString();
+
+    when(postDataAccess.findByIds(eq(List.of(missingId, foundId)))).thenReturn(
+        Uni.createFrom().item(List.of(samplePost)));
+
+    //when
+    final var lookup = this.postService
+        .lookupPosts(List.of(missingId, "invalid", foundId, missingId), Optional.empty())
+        .await().atMost(ONE_SECOND);
+
+    //then
+    assertThat(lookup.getItems(), is(List.of(samplePost)));
+    assertThat(lookup.getMissing(), is(List.of(missingId)));
+    assertThat(lookup.getInvalid(), is(List.of("invalid")));
+  }
+
+  @Test
+  @DisplayName("Inserted posts should be served from the cache")
+  void insertedPostShouldBeCached() {
+    //given
+    var post = getSamplePost();
+    when(postDataAccess.isAuthorActive(anyString())).thenReturn(
+        Uni.createFrom().item(true));
+    when(postDataAccess.persist(any(Post.class), any())).thenAnswer(a -> {
+      final Post persisted = a.getArgument(0);
+      persisted.setId(new ObjectId());
+      return Uni.createFrom().item(persisted);
+    });
+    final var persisted = this.postService.insertPost(post, createSampleCorrelationId()).await()
+        .atMost(ONE_SECOND);
+
+    //when
+    final var found = this.postService.retrievePostById(persisted.getId().toHexString()).await()
+        .atMost(ONE_SECOND);
+
+    //then
+    assertThat(found, is(Optional.of(persisted)));
+    verify(postDataAccess, never()).findById(anyString());
+  }
+
+  @Test
+  @DisplayName("PostsById should only fetch the posts missing from the cache")
+  void postsByIdsShouldOnlyFetchMissingPosts() {
+    //given
+    final var cachedPost = getSamplePost();
+    cachedPost.setId(new ObjectId());
+    this.postCache.put(cachedPost);
+
+    final var missingPost = getSamplePost();
+    missingPost.setId(new ObjectId());
+    final var missingId = missingPost.getId().toHexString();
+    when(postDataAccess.findByIds(List.of(missingId))).thenReturn(
+        Uni.createFrom().item(List.of(missingPost)));
+
+    //when
+    final var posts = this.postService
+        .retrievePostByIds(List.of(missingId, cachedPost.getId().toHexString()))
+        .await().atMost(ONE_SECOND);
+
+    //then
+    assertThat(posts, is(List.of(missingPost, cachedPost)));
+    verify(postDataAccess, times(1)).findByIds(List.of(missingId));
+  }
+
+  @Test
+  @DisplayName("Updated posts should replace their cached version")
+  void updatedPostShouldReplaceCachedPost() {
+    //given
+    final var post = getSamplePost();
+    post.setId(new ObjectId());
+    this.postCache.put(post);
+
+    final var updated = post.withMessage("new message").withVersion(1L);
+    when(postDataAccess.update(any(ObjectId.class), any(PostPatch.class), any(), any()))
+        .thenReturn(Uni.createFrom().item(Optional.of(updated)));
+
+    //when
+    this.postService.updatePost(post.getId(), new PostPatch("new message", null), 0L,
+        createSampleCorrelationId()).await().atMost(ONE_SECOND);
+    final var found = this.postService.retrievePostById(post.getId().toHexString()).await()
+        .atMost(ONE_SECOND);
+
+    //then
+    assertThat(found.map(Post::getMessage), is(Optional.of("new message")));
+    verify(postDataAccess, never()).findById(anyString());
+  }
+
   private static Author getSampleAuthor() {
     final var author = new Author();
     author.setActive(true);
@@ -0,0 +1,148 @@
+package com.artspace.post;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.artspace.post.TimelineCache.TimelinePage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import javax.ws.rs.core.EntityTag;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class TimelineCacheTest {
+
+  TimelineCache timelineCache;
+
+  @BeforeEach
+  public void setup() {
+    timelineCache = new TimelineCache();
+    timelineCache.isEnabled = true;
+    timelineCache.maximumBytes = 10;
+    timelineCache.maximumPage = 3;
+    timelineCache.expireAfterWrite = Duration.ofMinutes(1);
+    timelineCache.registry = new SimpleMeterRegistry();
+    timelineCache.init();
+  }
+
+  @Test
+  @DisplayName("Cached pages should be found by a case insensitive status")
+  void cachedPageShouldBeFound() {
+    //given
+    put("john.doe", 0, "[1]");
+
+    //when
+    final var result = timelineCache.get("john.doe", "ENABLED", 0, 10);
+
+    //then
+    assertThat(result.map(TimelineCacheTest::jsonOf), is(Optional.of("[1]")));
+    assertThat(result.flatMap(TimelinePage::getNextCursor), is(Optional.of("cursor")));
+  }
+
+  @Test
+  @DisplayName("Least recently used pages should be evicted once the cache exceeds its size")
+  void leastRecentlyUsedPageShouldBeEvicted() {
+    //given
+    put("john.doe", 0, "[1,2]");
+    put("jane.doe", 0, "[3,4]");
+    timelineCache.get("john.doe", "enabled", 0, 10);
+
+    //when
+    put("jack.doe", 0, "[5,6]");
+
+    //then
+    assertTrue(timelineCache.get("john.doe", "enabled", 0, 10).isPresent());
+    assertTrue(timelineCache.get("jane.doe", "enabled", 0, 10).isEmpty());
+    assertThat(timelineCache.usedBytes(), is(10L));
+  }
+
+  @Test
+  @DisplayName("Invalidated authors should lose all of their pages")
+  void invalidatedAuthorShouldLoseItsPages() {
+    //given
+    put("john.doe", 0, "[1]");
+    put("john.doe", 1, "[2]");
+    put("jane.doe", 0, "[3]");
+
+    //when
+    timelineCache.invalidate(Set.of("john.doe"));
+
+    //then
+    assertTrue(timelineCache.get("john.doe", "enabled", 0, 10).isEmpty());
+    assertTrue(timelineCache.get("john.doe", "enabled", 1, 10).isEmpty());
+    assertTrue(timelineCache.get("jane.doe", "enabled", 0, 10).isPresent());
+  }
+
+  @Test
+  @DisplayName("Pages should be shared, and invalidated, regardless of the author's case")
+  void pagesShouldBeKeyedByNormalizedAuthor() {
+    //given
+    put("John.Doe", 0, "[1]");
+
+    //when
+    final var found = timelineCache.get("john.doe", "enabled", 0, 10);
+    timelineCache.invalidate(Set.of("john.doe"));
+
+    //then
+    assertTrue(found.isPresent());
+    assertTrue(timelineCache.get("John.Doe", "enabled", 0, 10).isEmpty());
+  }
+
+  @Test
+  @DisplayName("Expired pages should not be served")
+  void expiredPageShouldNotBeServed() {
+    //given
+    timelineCache.expireAfterWrite = Duration.ZERO;
+    put("john.doe", 0, "[1]");
+
+    //when
+    final var result = timelineCache.get("john.doe", "enabled", 0, 10);
+
+    //then
+    assertTrue(result.isEmpty());
+    assertThat(timelineCache.usedBytes(), is(0L));
+  }
+
+  @Test
+  @DisplayName("Pages queried before their author was invalidated should not be stored")
+  void stalePageShouldNotBeStored() {
+    //given
+    final var generation = timelineCache.generationOf("john.doe");
+    timelineCache.invalidate(Set.of("john.doe"));
+
+    //when
+    timelineCache.put("john.doe", "enabled", 0, 10, generation, pageOf("[1]"));
+
+    //then
+    assertTrue(timelineCache.get("john.doe", "enabled", 0, 10).isEmpty());
+  }
+
+  @Test
+  @DisplayName("Only the first pages of author queries, without a cursor, should be cached")
+  void onlyFirstAuthorPagesShouldBeCacheable() {
+    assertTrue(timelineCache.isCacheable("john.doe", 2, null));
+    assertFalse(timelineCache.isCacheable("john.doe", 3, null));
+    assertFalse(timelineCache.isCacheable("john.doe", 0, "cursor"));
+    assertFalse(timelineCache.isCacheable(" ", 0, null));
+  }
+
+  private void put(final String author, final int pageIndex, final String json) {
+    final var generation = timelineCache.generationOf(author);
+    timelineCache.put(author, "enabled", pageIndex, 10, generation, pageOf(json));
+  }
+
+  private static TimelinePage pageOf(final String json) {
+    return new TimelinePage(json.getBytes(StandardCharsets.UTF_8), "cursor",
+        new EntityTag("p-" + json));
+  }
+
+  private static String jsonOf(final TimelinePage page) {
+    return new String(page.getJson(), StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,69 @@
+package com.artspace.post.data;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EmptySource;
+import org.junit.jupiter.params.provider.NullSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class AuthorStatusCacheTest {
+
+  AuthorStatusCache authorStatusCache;
+
+  @BeforeEach
+  public void setup() {
+    authorStatusCache = new AuthorStatusCache();
+    authorStatusCache.maximumSize = 100;
+    authorStatusCache.expireAfterWrite = Duration.ofMinutes(1);
+    authorStatusCache.registry = new SimpleMeterRegistry();
+    authorStatusCache.init();
+  }
+
+  @Test
+  @DisplayName("Cached statuses should be found by a case insensitive username")
+  void cachedStatusShouldBeCaseInsensitive() {
+    //given
+    authorStatusCache.put("John.Doe ", false);
+
+    //when
+    final var result = authorStatusCache.getIfPresent("john.doe");
+
+    //then
+    assertThat(result, is(Optional.of(false)));
+  }
+
+  @Test
+  @DisplayName("Invalidated authors should not be found")
+  void invalidatedAuthorShouldNotBeFound() {
+    //given
+    authorStatusCache.put("john.doe", true);
+
+    //when
+    authorStatusCache.invalidate("JOHN.DOE");
+
+    //then
+    assertTrue(authorStatusCache.getIfPresent("john.doe").isEmpty());
+  }
+
+  @ParameterizedTest
+  @EmptySource
+  @NullSource
+  @ValueSource(strings = "   ")
+  @DisplayName("Invalid usernames should never be cached")
+  void invalidUsernamesShouldNotBeCached(String username) {
+    //when
+    authorStatusCache.put(username, true);
+
+    //then
+    assertTrue(authorStatusCache.getIfPresent(username).isEmpty());
+  }
+}
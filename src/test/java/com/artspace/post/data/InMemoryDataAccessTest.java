@@ -0,0 +1,220 @@
+package com.artspace.post.data;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.artspace.post.Author;
+import com.artspace.post.Post;
+import com.artspace.post.PostPatch;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class InMemoryDataAccessTest {
+
+  private static final Duration ONE_SECOND = Duration.ofSeconds(1L);
+
+  private static final Duration LEASE = Duration.ofMinutes(1L);
+
+  private static final Function<Post, OutboxEvent> EVENT_OF =
+      post -> OutboxEvent.of(post, "CREATED", "correlation");
+
+  InMemoryDataAccess dataAccess;
+
+  @BeforeEach
+  public void setup() {
+    final var postSearchFactory = new PostSearchFactory();
+    postSearchFactory.defaultPageIndex = 0;
+    postSearchFactory.defaultPageSize = 2;
+    postSearchFactory.defaultSort = "creationTime";
+    postSearchFactory.defaultStatus = "all";
+    postSearchFactory.streamBatchSize = 100;
+
+    dataAccess = new InMemoryDataAccess(postSearchFactory);
+  }
+
+  @Test
+  @DisplayName("Author searches should be sorted from the newest post, resuming from cursors")
+  void authorSearchShouldResumeFromCursor() {
+    //given
+    final var posts = persistPosts("john.doe", 5);
+
+    //when
+    final var search = dataAccess.searchPosts().byAuthor("john.doe");
+    final var firstPage = search.invoke().await().atMost(ONE_SECOND);
+    final var cursor = search.nextCursorOf(firstPage).orElseThrow();
+    final var secondPage = dataAccess.searchPosts().byAuthor("john.doe").after(cursor)
+        .invoke().await().atMost(ONE_SECOND);
+
+    //then
+    assertThat(idsOf(firstPage), contains(posts.get(4).getId(), posts.get(3).getId()));
+    assertThat(idsOf(secondPage), contains(posts.get(2).getId(), posts.get(1).getId()));
+  }
+
+  @Test
+  @DisplayName("Status searches should be sorted from the oldest post, filtered by status")
+  void statusSearchShouldFilterByStatus() {
+    //given
+    final var posts = persistPosts("john.doe", 4);
+    dataAccess.update(posts.get(0).getId(), new PostPatch(null, false), null, EVENT_OF)
+        .await().atMost(ONE_SECOND);
+
+    //when
+    final var enabledPosts = dataAccess.searchPosts().byPostStatus("enabled").pageSize(10)
+        .stream().collect().asList().await().atMost(ONE_SECOND);
+    final var disabledPosts = dataAccess.searchPosts().byPostStatus("disabled").pageSize(10)
+        .invoke().await().atMost(ONE_SECOND);
+
+    //then
+    assertThat(idsOf(enabledPosts),
+        contains(posts.get(1).getId(), posts.get(2).getId(), posts.get(3).getId()));
+    assertThat(idsOf(disabledPosts), contains(posts.get(0).getId()));
+  }
+
+  @Test
+  @DisplayName("Streamed lookups should trim ids and skip the invalid ones")
+  void streamByIdsShouldSkipInvalidIds() {
+    //given
+    final var posts = persistPosts("john.doe", 2);
+    final var ids = List.of(" " + posts.get(0).getId() + " ", "invalid", posts.get(1).getId()
+        .toString());
+
+    //when
+    final var result = dataAccess.streamByIds(ids).collect().asList().await().atMost(ONE_SECOND);
+
+    //then
+    assertThat(idsOf(result), contains(posts.get(0).getId(), posts.get(1).getId()));
+  }
+
+  @Test
+  @DisplayName("Merging an unknown author should neither store nor activate it")
+  void mergeOfUnknownAuthorShouldBeIgnored() {
+    //given
+    final var author = new Author();
+    author.setUsername("john.doe");
+    author.activate();
+
+    //when
+    final var result = dataAccess.merge(author).await().atMost(ONE_SECOND);
+
+    //then
+    assertThat(result, is(Optional.empty()));
+    assertThat(dataAccess.isAuthorActive("john.doe").await().atMost(ONE_SECOND), is(false));
+  }
+
+  @Test
+  @DisplayName("Posts from inactive authors should not be found by author searches")
+  void inactiveAuthorPostsShouldNotBeFound() {
+    //given
+    persistPosts("john.doe", 2);
+    final var author = new Author();
+    author.setUsername("john.doe");
+
+    //when
+    dataAccess.upsert(List.of(author)).await().atMost(ONE_SECOND);
+    final var result = dataAccess.searchPosts().byAuthor("john.doe").invoke()
+        .await().atMost(ONE_SECOND);
+
+    //then
+    assertTrue(result.isEmpty());
+  }
+
+  @Test
+  @DisplayName("Claimed events should not be claimed again while their lease is held")
+  void claimedEventsShouldNotBeClaimedAgain() {
+    //given
+    persistPosts("john.doe", 3);
+    final var claimed = dataAccess.claimPendingEvents(2, LEASE).await().atMost(ONE_SECOND);
+
+    //when
+    final var next = dataAccess.claimPendingEvents(10, LEASE).await().atMost(ONE_SECOND);
+    final var held = dataAccess.claimPendingEvents(10, Duration.ZERO).await()
+        .atMost(ONE_SECOND);
+
+    //then
+    assertThat(claimed.size(), is(2));
+    assertThat(next.size(), is(1));
+    assertTrue(held.isEmpty());
+  }
+
+  @Test
+  @DisplayName("Updates at a stale version should neither change the post nor append an event")
+  void staleUpdateShouldBeIgnored() {
+    //given
+    final var post = persistPosts("john.doe", 1).get(0);
+    dataAccess.markAsSent(List.of(dataAccess.claimPendingEvents(10, LEASE).await()
+        .atMost(ONE_SECOND)
+        .get(0).getId())).await().atMost(ONE_SECOND);
+
+    //when
+    final var updated = dataAccess
+        .update(post.getId(), new PostPatch("changed", null), 0L, EVENT_OF)
+        .await().atMost(ONE_SECOND);
+    final var stale = dataAccess.update(post.getId(), new PostPatch("stale", null), 0L, EVENT_OF)
+        .await().atMost(ONE_SECOND);
+
+    //then
+    assertThat(updated.map(Post::getVersion), is(Optional.of(1L)));
+    assertTrue(stale.isEmpty());
+    assertThat(dataAccess.findById(post.getId()).await().atMost(ONE_SECOND)
+        .map(Post::getMessage), is(Optional.of("changed")));
+    assertThat(dataAccess.countPendingEvents().await().atMost(ONE_SECOND), is(1L));
+  }
+
+  @Test
+  @DisplayName("Post counters should follow inserts and status changes, but not other updates")
+  void postCounterShouldFollowStatusChanges() {
+    //given
+    final var posts = persistPosts("john.doe", 3);
+
+    //when
+    dataAccess.update(posts.get(0).getId(), new PostPatch(null, false), null, EVENT_OF)
+        .await().atMost(ONE_SECOND);
+    dataAccess.update(posts.get(0).getId(), new PostPatch("changed", false), null, EVENT_OF)
+        .await().atMost(ONE_SECOND);
+    final var counter = dataAccess.findPostCounter("john.doe").await().atMost(ONE_SECOND);
+
+    //then
+    assertThat(counter.countOf("all"), is(3L));
+    assertThat(counter.countOf("enabled"), is(2L));
+    assertThat(counter.countOf("disabled"), is(1L));
+    assertThat(dataAccess.findPostCounter("jane.doe").await().atMost(ONE_SECOND).getTotal(),
+        is(0L));
+  }
+
+  private List<Post> persistPosts(final String username, final int count) {
+    final var author = new Author();
+    author.setUsername(username);
+    author.activate();
+    dataAccess.persist(author).await().atMost(ONE_SECOND);
+
+    final var creationTime = Instant.now().minusSeconds(count);
+    for (int i = 0; i < count; i++) {
+      final var post = new Post();
+      post.setMessage("message " + i);
+      post.setAuthor(username);
+      post.setAuthorActive(true);
+      post.setCreationTime(creationTime.plusSeconds(i));
+      dataAccess.persist(post, EVENT_OF).await().atMost(ONE_SECOND);
+    }
+
+    return dataAccess.searchPosts().byAuthor(username).pageSize(count)
+        .invoke().await().atMost(ONE_SECOND)
+        .stream()
+        .sorted((a, b) -> a.getCreationTime().compareTo(b.getCreationTime()))
+        .collect(Collectors.toList());
+  }
+
+  private static List<ObjectId> idsOf(final List<Post> posts) {
+    return posts.stream().map(Post::getId).collect(Collectors.toList());
+  }
+}
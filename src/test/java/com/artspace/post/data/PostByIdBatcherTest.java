@@ -0,0 +1,121 @@
+package com.artspace.post.data;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.artspace.post.Post;
+import com.mongodb.ReadPreference;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.mutiny.Uni;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class PostByIdBatcherTest {
+
+  private static final ReadPreference PRIMARY = ReadPreference.primary();
+
+  @Mock
+  PostRepository postRepository;
+
+  @Captor
+  ArgumentCaptor<List<ObjectId>> idsCaptor;
+
+  PostByIdBatcher batcher;
+
+  @BeforeEach
+  public void setup() {
+    batcher = new PostByIdBatcher();
+    batcher.isEnabled = true;
+    batcher.windowMillis = 50;
+    batcher.maximumSize = 100;
+    batcher.postRepository = postRepository;
+    batcher.readPreferences = new ReadPreferences();
+    batcher.readPreferences.byId = PRIMARY;
+    batcher.registry = new SimpleMeterRegistry();
+    batcher.init();
+  }
+
+  @Test
+  @DisplayName("Lookups within the same window should be fetched once, collapsing duplicated ids")
+  void lookupsWithinWindowShouldBeFetchedOnce() {
+    //given
+    final var post = postOf(new ObjectId());
+    final var missingId = new ObjectId();
+    when(postRepository.findByIds(anyList(), eq(PRIMARY)))
+        .thenReturn(Uni.createFrom().item(List.of(post)));
+
+    //when
+    final var first = batcher.findById(post.getId()).subscribeAsCompletionStage();
+    final var second = batcher.findById(post.getId()).subscribeAsCompletionStage();
+    final var missing = batcher.findById(missingId).subscribeAsCompletionStage();
+
+    //then
+    assertThat(first.join(), is(Optional.of(post)));
+    assertThat(second.join(), is(Optional.of(post)));
+    assertThat(missing.join(), is(Optional.empty()));
+    verify(postRepository, times(1)).findByIds(idsCaptor.capture(), eq(PRIMARY));
+    assertThat(idsCaptor.getValue(), containsInAnyOrder(post.getId(), missingId));
+  }
+
+  @Test
+  @DisplayName("Full batches should be fetched without waiting for their window")
+  void fullBatchShouldBeFetchedImmediately() throws Exception {
+    //given
+    batcher.windowMillis = 60_000;
+    batcher.maximumSize = 2;
+    final var posts = List.of(postOf(new ObjectId()), postOf(new ObjectId()));
+    when(postRepository.findByIds(anyList(), eq(PRIMARY)))
+        .thenReturn(Uni.createFrom().item(posts));
+
+    //when
+    final var first = batcher.findById(posts.get(0).getId()).subscribeAsCompletionStage();
+    final var second = batcher.findById(posts.get(1).getId()).subscribeAsCompletionStage();
+
+    //then
+    assertThat(first.get(1, TimeUnit.SECONDS), is(Optional.of(posts.get(0))));
+    assertThat(second.get(1, TimeUnit.SECONDS), is(Optional.of(posts.get(1))));
+  }
+
+  @Test
+  @DisplayName("A failed batch should fail every lookup waiting for it")
+  void failedBatchShouldFailEveryLookup() {
+    //given
+    when(postRepository.findByIds(anyList(), eq(PRIMARY)))
+        .thenReturn(Uni.createFrom().failure(new IllegalStateException("unavailable")));
+
+    //when
+    final var first = batcher.findById(new ObjectId()).subscribeAsCompletionStage();
+    final var second = batcher.findById(new ObjectId()).subscribeAsCompletionStage();
+
+    //then
+    assertThrows(CompletionException.class, first::join);
+    assertThrows(CompletionException.class, second::join);
+  }
+
+  private static Post postOf(final ObjectId id) {
+    final var post = new Post();
+    post.setId(id);
+    post.setMessage("message");
+    post.setAuthor("john.doe");
+    return post;
+  }
+}
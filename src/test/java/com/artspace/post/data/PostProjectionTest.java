@@ -0,0 +1,44 @@
+package com.artspace.post.data;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class PostProjectionTest {
+
+  @Test
+  @DisplayName("Ids only projections should read nothing but index keys")
+  void idsOnlyProjectionShouldReadIndexKeysOnly() {
+    //when
+    final var projection = PostProjection.parse(" id ,");
+
+    //then
+    assertTrue(projection.isIdsOnly());
+    assertThat(projection.toDocument(), is(new Document("creationTime", 1).append("_id", 1)));
+  }
+
+  @Test
+  @DisplayName("Projections should always hold the id, in declaration order")
+  void projectionShouldAlwaysHoldTheId() {
+    //when
+    final var projection = PostProjection.parse("version,author");
+
+    //then
+    assertThat(projection.getFields(), contains("id", "author", "version"));
+    assertThat(projection.toDocument().keySet(),
+        contains("creationTime", "_id", "username", "version"));
+  }
+
+  @Test
+  @DisplayName("Projections of unknown or no fields should fail")
+  void projectionOfUnknownFieldsShouldFail() {
+    assertThrows(InvalidSearchException.class, () -> PostProjection.parse("id,secret"));
+    assertThrows(InvalidSearchException.class, () -> PostProjection.parse(" , "));
+  }
+}
@@ -0,0 +1,61 @@
+package com.artspace.post.data;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.mongodb.ReadPreference;
+import com.mongodb.Tag;
+import com.mongodb.TagSet;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class ReadPreferencesTest {
+
+  @Test
+  @DisplayName("Read preferences should be built from their mode alone")
+  void readPreferenceShouldBeBuiltFromMode() {
+    //when
+    final var result =
+        ReadPreferences.readPreferenceOf("secondaryPreferred", Optional.empty(), Optional.empty());
+
+    //then
+    assertThat(result, is(ReadPreference.secondaryPreferred()));
+  }
+
+  @Test
+  @DisplayName("Read preferences should be built with their max staleness and ordered tag sets")
+  void readPreferenceShouldBeBuiltWithTagSets() {
+    //when
+    final var result = ReadPreferences.readPreferenceOf("secondary",
+        Optional.of(Duration.ofSeconds(120)), Optional.of("dc:east, usage:reporting;dc:east;"));
+
+    //then
+    final var expectedTagSets = List.of(
+        new TagSet(List.of(new Tag("dc", "east"), new Tag("usage", "reporting"))),
+        new TagSet(new Tag("dc", "east")),
+        new TagSet());
+    assertThat(result,
+        is(ReadPreference.secondary(expectedTagSets, 120_000, TimeUnit.MILLISECONDS)));
+  }
+
+  @Test
+  @DisplayName("Primary read preferences should not accept tag sets")
+  void primaryReadPreferenceShouldNotAcceptTags() {
+    assertThrows(IllegalArgumentException.class,
+        () -> ReadPreferences.readPreferenceOf("primary", Optional.empty(),
+            Optional.of("dc:east")));
+  }
+
+  @Test
+  @DisplayName("Malformed tags should not be accepted")
+  void malformedTagsShouldNotBeAccepted() {
+    assertThrows(IllegalArgumentException.class,
+        () -> ReadPreferences.readPreferenceOf("nearest", Optional.empty(),
+            Optional.of("dc-east")));
+  }
+}
@@ -0,0 +1,101 @@
+package com.artspace.post.data;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.mutiny.Uni;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+
+  SimpleMeterRegistry registry;
+
+  SingleFlight<String, String> singleFlight;
+
+  @BeforeEach
+  public void setup() {
+    registry = new SimpleMeterRegistry();
+    singleFlight = new SingleFlight<>("test", registry);
+  }
+
+  @Test
+  @DisplayName("Identical calls in flight should be shared, while later calls execute again")
+  void identicalCallsShouldShareSingleCall() {
+    //given
+    final var calls = new AtomicInteger();
+    final var pending = new CompletableFuture<String>();
+
+    //when
+    final var first = singleFlight.execute("john.doe", () -> {
+      calls.incrementAndGet();
+      return Uni.createFrom().completionStage(pending);
+    }).subscribeAsCompletionStage();
+    final var second = singleFlight.execute("john.doe", () -> {
+      calls.incrementAndGet();
+      return Uni.createFrom().item("unexpected");
+    }).subscribeAsCompletionStage();
+    pending.complete("result");
+
+    final var later = singleFlight.execute("john.doe", () -> {
+      calls.incrementAndGet();
+      return Uni.createFrom().item("later");
+    }).subscribeAsCompletionStage();
+
+    //then
+    assertThat(first.join(), is("result"));
+    assertThat(second.join(), is("result"));
+    assertThat(later.join(), is("later"));
+    assertThat(calls.get(), is(2));
+    assertThat(registry.get("post_single_flight_calls").tag("outcome", "shared").counter()
+        .count(), is(1.0));
+  }
+
+  @Test
+  @DisplayName("A failed call should fail every call sharing it, without being remembered")
+  void failedCallShouldFailEverySharedCall() {
+    //given
+    final var pending = new CompletableFuture<String>();
+
+    //when
+    final var first = singleFlight
+        .execute("john.doe", () -> Uni.createFrom().completionStage(pending))
+        .subscribeAsCompletionStage();
+    final var second = singleFlight
+        .execute("john.doe", () -> Uni.createFrom().item("unexpected"))
+        .subscribeAsCompletionStage();
+    pending.completeExceptionally(new IllegalStateException("unavailable"));
+
+    final var later = singleFlight.executeBlocking("john.doe", () -> "later");
+
+    //then
+    assertThrows(CompletionException.class, first::join);
+    assertThrows(CompletionException.class, second::join);
+    assertThat(later, is("later"));
+  }
+
+  @Test
+  @DisplayName("A blocking call failed by an error should be rethrown, without being remembered")
+  void blockingCallFailedByErrorShouldNotBeRemembered() {
+    //given
+    final Supplier<String> failing = () -> {
+      throw new LinkageError("broken");
+    };
+
+    //when
+    final var failure = assertThrows(LinkageError.class,
+        () -> singleFlight.executeBlocking("john.doe", failing));
+    final var later = singleFlight.executeBlocking("john.doe", () -> "later");
+
+    //then
+    assertThat(failure.getMessage(), is("broken"));
+    assertThat(later, is("later"));
+  }
+}
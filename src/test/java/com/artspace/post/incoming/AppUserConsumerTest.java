@@ -4,6 +4,7 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -13,16 +14,23 @@ import com.artspace.post.Author;
 import com.artspace.post.PostService;
 import com.github.javafaker.Faker;
 import com.mongodb.MongoClientException;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
+import io.smallrye.mutiny.Uni;
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
-import javax.validation.ConstraintViolationException;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
-import org.bson.types.ObjectId;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
 import org.jboss.logging.Logger;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
@@ -43,6 +51,8 @@ class AppUserConsumerTest {
 
   private static final Logger LOGGER = Logger.getLogger(AppUserConsumer.class);
 
+  private static final Duration ONE_SECOND = Duration.ofSeconds(1L);
+
   static Faker FAKER;
 
   AppUserConsumer appUserConsumer;
@@ -51,10 +61,10 @@ class AppUserConsumerTest {
 
   MeterRegistry meterRegistry;
 
-  Timer timer;
+  Validator validator;
 
   @Captor
-  ArgumentCaptor<Author> argumentCaptor;
+  ArgumentCaptor<List<Author>> argumentCaptor;
 
   @BeforeAll
   public static void setupBefore() {
@@ -65,9 +75,11 @@ class AppUserConsumerTest {
   public void setup() {
     mockedPostService = mock(PostService.class);
     meterRegistry = mock(MeterRegistry.class);
-    timer = mock(Timer.class);
-    appUserConsumer = new AppUserConsumer(LOGGER, mockedPostService, meterRegistry);
-    appUserConsumer.processTimer = timer;
+    validator = mock(Validator.class);
+    appUserConsumer = new AppUserConsumer(LOGGER, mockedPostService, meterRegistry, validator);
+    appUserConsumer.processTimer = mock(Timer.class);
+    appUserConsumer.batchTimer = mock(Timer.class);
+    appUserConsumer.batchSizeSummary = mock(DistributionSummary.class);
   }
 
   @Test
@@ -77,10 +89,10 @@ class AppUserConsumerTest {
     final var record = new ConsumerRecord<>("appuser", 1, 100L, "", new AppUserDTO());
 
     //when
-    this.appUserConsumer.consume(record);
+    this.appUserConsumer.consume(batchOf(record)).await().atMost(ONE_SECOND);
 
     //then
-    verify(mockedPostService, never()).persistOrUpdateAuthor(any(Author.class));
+    verify(mockedPostService, never()).persistOrUpdateAuthors(anyList());
   }
 
   @ParameterizedTest
@@ -94,24 +106,27 @@ class AppUserConsumerTest {
         new AppUserDTO());
 
     //when
-    this.appUserConsumer.consume(record);
+    this.appUserConsumer.consume(batchOf(record)).await().atMost(ONE_SECOND);
 
     //then
-    verify(mockedPostService, never()).persistOrUpdateAuthor(any(Author.class));
+    verify(mockedPostService, never()).persistOrUpdateAuthors(anyList());
   }
 
   @Test
   @DisplayName("Messages with an invalid author should be ignored")
+  @SuppressWarnings("unchecked")
   void messagesWithInvalidAuthorShouldBeIgnored() {
     //give
     final var record = sampleIncomingMessage(UUID.randomUUID().toString(),
         new AppUserDTO());
 
-    when(this.mockedPostService.persistOrUpdateAuthor(any())).thenThrow(
-        new ConstraintViolationException(Set.of()));
+    final ConstraintViolation<Author> violation = mock(ConstraintViolation.class);
+    when(this.validator.validate(any(Author.class))).thenReturn(Set.of(violation));
 
     //then
-    Assertions.assertDoesNotThrow(()->this.appUserConsumer.consume(record));
+    Assertions.assertDoesNotThrow(
+        () -> this.appUserConsumer.consume(batchOf(record)).await().atMost(ONE_SECOND));
+    verify(mockedPostService, never()).persistOrUpdateAuthors(anyList());
   }
 
 
@@ -123,17 +138,43 @@ class AppUserConsumerTest {
     final var record = sampleIncomingMessage(UUID.randomUUID().toString(),
         appUserDTO);
 
-    when(this.mockedPostService.persistOrUpdateAuthor(any())).thenReturn(
-        Optional.of(toEntity(appUserDTO)));
+    when(this.mockedPostService.persistOrUpdateAuthors(anyList())).thenReturn(
+        Uni.createFrom().item(1L));
+
+    //when
+    this.appUserConsumer.consume(batchOf(record)).await().atMost(ONE_SECOND);
+
+    //then
+    verify(mockedPostService).persistOrUpdateAuthors(argumentCaptor.capture());
+    final var data = argumentCaptor.getValue();
+    assertThat(data.size(), is(1));
+    assertThat(data.get(0).getUsername(), is(appUserDTO.getUsername()));
+    assertTrue(data.get(0).isActive());
+  }
+
+  @Test
+  @DisplayName("All valid authors within a batch should be persisted at once")
+  void messagesWithinABatchShouldBePersistedAtOnce() {
+    //given
+    final var validRecord = sampleIncomingMessage(UUID.randomUUID().toString(),
+        sampleAppUser());
+    final var anotherValidRecord = sampleIncomingMessage(UUID.randomUUID().toString(),
+        sampleAppUser());
+    final var invalidRecord = sampleIncomingMessage(null, sampleAppUser());
+
+    when(this.mockedPostService.persistOrUpdateAuthors(anyList())).thenReturn(
+        Uni.createFrom().item(2L));
 
     //when
-    this.appUserConsumer.consume(record);
+    this.appUserConsumer.consume(batchOf(validRecord, invalidRecord, anotherValidRecord))
+        .await().atMost(ONE_SECOND);
 
     //then
-    verify(mockedPostService).persistOrUpdateAuthor(argumentCaptor.capture());
+    verify(mockedPostService).persistOrUpdateAuthors(argumentCaptor.capture());
     final var data = argumentCaptor.getValue();
-    assertThat(data.getUsername(), is(appUserDTO.getUsername()));
-    assertTrue(data.isActive());
+    assertThat(data.size(), is(2));
+    assertThat(data.get(0).getUsername(), is(validRecord.value().getUsername()));
+    assertThat(data.get(1).getUsername(), is(anotherValidRecord.value().getUsername()));
   }
 
   @Test
@@ -143,11 +184,12 @@ class AppUserConsumerTest {
     final var record = sampleIncomingMessage(UUID.randomUUID().toString(),
         sampleAppUser());
 
-    when(this.mockedPostService.persistOrUpdateAuthor(any())).thenThrow(
+    when(this.mockedPostService.persistOrUpdateAuthors(anyList())).thenThrow(
         new MongoClientException("Forced Error"));
 
     //then
-    Assertions.assertThrows(RecordConsumingException.class, () -> this.appUserConsumer.consume(record));
+    Assertions.assertThrows(RecordConsumingException.class,
+        () -> this.appUserConsumer.consume(batchOf(record)).await().atMost(ONE_SECOND));
   }
 
   @Test
@@ -157,10 +199,12 @@ class AppUserConsumerTest {
     final var record = sampleIncomingMessage(UUID.randomUUID().toString(),
         sampleAppUser());
 
-    when(this.mockedPostService.persistOrUpdateAuthor(any())).thenReturn(Optional.empty());
+    when(this.mockedPostService.persistOrUpdateAuthors(anyList())).thenReturn(
+        Uni.createFrom().failure(new MongoClientException("Forced Error")));
 
     //then
-    Assertions.assertThrows(RecordConsumingException.class, () -> this.appUserConsumer.consume(record));
+    Assertions.assertThrows(RecordConsumingException.class,
+        () -> this.appUserConsumer.consume(batchOf(record)).await().atMost(ONE_SECOND));
   }
 
   private static AppUserDTO sampleAppUser() {
@@ -172,12 +216,10 @@ class AppUserConsumerTest {
     return appUserDTO;
   }
 
-  private static Author toEntity(AppUserDTO appUserDTO) {
-    final var author = new Author();
-    author.setActive(appUserDTO.isActive());
-    author.setUsername(appUserDTO.getUsername());
-    author.setId(new ObjectId());
-    return author;
+  @SafeVarargs
+  private static ConsumerRecords<String, AppUserDTO> batchOf(
+      final ConsumerRecord<String, AppUserDTO>... records) {
+    return new ConsumerRecords<>(Map.of(new TopicPartition("mock", 1), Arrays.asList(records)));
   }
 
   private static ConsumerRecord<String, AppUserDTO> sampleIncomingMessage(
@@ -189,4 +231,4 @@ class AppUserConsumerTest {
 
     return record;
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,72 @@
+package com.artspace.post.outgoing;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class EmitterTelemetryTest {
+
+  SimpleMeterRegistry registry;
+
+  EmitterTelemetry telemetry;
+
+  @BeforeEach
+  public void setup() {
+    registry = new SimpleMeterRegistry();
+    telemetry = new EmitterTelemetry();
+    telemetry.logSampleRate = 100;
+    telemetry.maxInflightMessages = 1;
+    telemetry.registry = registry;
+    telemetry.logger = Logger.getLogger(EmitterTelemetryTest.class);
+    telemetry.init();
+  }
+
+  @Test
+  @DisplayName("Acknowledged messages should record their latency and leave the in-flight gauge")
+  void ackedMessagesShouldRecordLatency() {
+    //given
+    final var sentAt = telemetry.sent();
+    telemetry.sent();
+
+    //when
+    telemetry.acked("correlationId", new PostDTO(), sentAt);
+
+    //then
+    assertThat(registry.get("post_emitter_ack_latency").timer().count(), is(1L));
+    assertThat(registry.get("post_emitter_in_flight").gauge().value(), is(1.0));
+  }
+
+  @Test
+  @DisplayName("Negative acknowledgements should be counted by exception type")
+  void nackedMessagesShouldBeCountedByException() {
+    //given
+    telemetry.sent();
+
+    //when
+    telemetry.nacked("correlationId", new IllegalStateException());
+
+    //then
+    final var nacks = registry.get("post_emitter_nacks")
+        .tag("exception", "IllegalStateException")
+        .counter();
+    assertThat(nacks.count(), is(1.0));
+    assertThat(registry.get("post_emitter_in_flight").gauge().value(), is(0.0));
+  }
+
+  @Test
+  @DisplayName("Messages beyond the connector in-flight limit should be reported as buffered")
+  void messagesBeyondInFlightLimitShouldBeBuffered() {
+    //when
+    telemetry.sent();
+    telemetry.sent();
+    telemetry.sent();
+
+    //then
+    assertThat(registry.get("post_emitter_buffer_usage").gauge().value(), is(2.0));
+  }
+}